@@ -7,10 +7,13 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.client.BaseClient;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -31,6 +34,10 @@ public class BookingClient extends BaseClient {
         return post("", userId, dto);
     }
 
+    public ResponseEntity<Object> createBookings(long userId, List<BookingDto> dtos) {
+        return post("/batch", userId, dtos);
+    }
+
     public ResponseEntity<Object> updateBooking(long userId, long bookingId, String approved) {
         Map<String, Object> parameters = Map.of(
                 "approved", approved
@@ -38,25 +45,47 @@ public class BookingClient extends BaseClient {
         return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
     }
 
+    public ResponseEntity<Object> decideBookings(long userId, BookingDecisionDto dto) {
+        return patch("/approve", userId, dto);
+    }
+
+    public ResponseEntity<Object> getBookingCounts(long userId) {
+        return get("/counts", userId);
+    }
+
+    public ResponseEntity<Object> getOwnerBookingCounts(long userId) {
+        return get("/owner/counts", userId);
+    }
+
     public ResponseEntity<Object> getById(long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> getBookingsByUser(long userId, BookingState state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public ResponseEntity<Object> getBookingsByUser(long userId, BookingState state, Integer from, Integer size,
+                                                    String after) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "state", state.name(),
                 "from", from,
                 "size", size
-        );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+        ));
+        return get("?state={state}&from={from}&size={size}" + getCursorQuery(after, parameters), userId, parameters);
     }
 
-    public ResponseEntity<Object> getBookingByOwner(long userId, String state, int from, int size) {
-        Map<String, Object> parameters = Map.of(
+    public ResponseEntity<Object> getBookingByOwner(long userId, String state, int from, int size, String after) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "state", state,
                 "from", from,
                 "size", size
-        );
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+        ));
+        return get("/owner?state={state}&from={from}&size={size}" + getCursorQuery(after, parameters),
+                userId, parameters);
+    }
+
+    private String getCursorQuery(String after, Map<String, Object> parameters) {
+        if (after == null) {
+            return "";
+        }
+        parameters.put("after", after);
+        return "&after={after}";
     }
 }
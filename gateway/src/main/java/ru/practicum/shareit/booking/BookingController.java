@@ -6,12 +6,16 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.util.List;
 
 
 @Controller
@@ -32,6 +36,25 @@ public class BookingController {
         return bookingClient.createBooking(userId, requestDto);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<Object> createBatch(
+            @RequestHeader(USER_ID_HEADER) long userId,
+            @RequestBody @NotEmpty @Size(max = 100) List<BookingDto> requestDtos
+    ) {
+        log.info("Creating {} bookings by userId={}", requestDtos.size(), userId);
+        return bookingClient.createBookings(userId, requestDtos);
+    }
+
+    @PatchMapping("/approve")
+    public ResponseEntity<Object> decide(
+            @RequestHeader(USER_ID_HEADER) long userId,
+            @RequestBody @Valid BookingDecisionDto decisionDto
+    ) {
+        log.info("Decide bookings {} by user {} to {}",
+                decisionDto.getBookingIds(), userId, decisionDto.getApproved());
+        return bookingClient.decideBookings(userId, decisionDto);
+    }
+
     @PatchMapping("/{bookingId}")
     public ResponseEntity<Object> update(
             @RequestHeader(USER_ID_HEADER) long userId,
@@ -42,6 +65,18 @@ public class BookingController {
         return bookingClient.updateBooking(userId, bookingId, approved);
     }
 
+    @GetMapping("/counts")
+    public ResponseEntity<Object> getBookingCounts(@RequestHeader(USER_ID_HEADER) long userId) {
+        log.info("Get booking counts, userId={}", userId);
+        return bookingClient.getBookingCounts(userId);
+    }
+
+    @GetMapping("/owner/counts")
+    public ResponseEntity<Object> getOwnerBookingCounts(@RequestHeader(USER_ID_HEADER) long userId) {
+        log.info("Get booking counts for item owner, userId={}", userId);
+        return bookingClient.getOwnerBookingCounts(userId);
+    }
+
     @GetMapping("/{bookingId}")
     public ResponseEntity<Object> getById(
             @RequestHeader(USER_ID_HEADER) long userId,
@@ -56,13 +91,14 @@ public class BookingController {
             @RequestHeader(USER_ID_HEADER) long userId,
             @RequestParam(defaultValue = "ALL") String state,
             @PositiveOrZero @RequestParam(defaultValue = "0") int from,
-            @Positive @RequestParam(defaultValue = "10") int size
+            @Positive @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String after
     ) {
         BookingState stateParam = BookingState.from(state)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + state));
         log.info("Get booking for item owner with state {}, userId={}, from={}, size={}",
                 userId, stateParam, from, size);
-        return bookingClient.getBookingByOwner(userId, state, from, size);
+        return bookingClient.getBookingByOwner(userId, state, from, size, after);
     }
 
     @GetMapping
@@ -70,11 +106,12 @@ public class BookingController {
             @RequestHeader(USER_ID_HEADER) long userId,
             @RequestParam(defaultValue = "ALL") String state,
             @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
-            @Positive @RequestParam(defaultValue = "10") Integer size
+            @Positive @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(required = false) String after
     ) {
         BookingState stateParam = BookingState.from(state)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + state));
         log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-        return bookingClient.getBookingsByUser(userId, stateParam, from, size);
+        return bookingClient.getBookingsByUser(userId, stateParam, from, size, after);
     }
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+@Builder
+public class BookingDecisionDto {
+    @NotEmpty
+    @Size(max = 100)
+    private List<@NotNull @Positive Long> bookingIds;
+    @NotNull
+    private Boolean approved;
+}
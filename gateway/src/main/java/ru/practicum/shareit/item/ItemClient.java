@@ -9,8 +9,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.comment.CommentDto;
+import ru.practicum.shareit.item.dto.ItemBulkUpdateDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
@@ -33,10 +35,25 @@ public class ItemClient extends BaseClient {
         return patch("/" + itemId, userId, dto);
     }
 
+    public ResponseEntity<Object> updateBulk(long userId, ItemBulkUpdateDto dto) {
+        return patch("/bulk", userId, dto);
+    }
+
     public ResponseEntity<Object> getById(long userId, long itemId) {
         return get("/" + itemId, userId);
     }
 
+    public ResponseEntity<Object> getAvailability(long userId, long itemId, String from, String to,
+                                                  String granularity) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "to", to,
+                "granularity", granularity
+        );
+        return get("/" + itemId + "/availability?from={from}&to={to}&granularity={granularity}", userId,
+                parameters);
+    }
+
     public ResponseEntity<Object> getUserItems(long userId, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
@@ -45,16 +62,29 @@ public class ItemClient extends BaseClient {
         return get("?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> searchByText(long userId, String text, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public ResponseEntity<Object> searchByText(long userId, String text, Integer from, Integer size, String after) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "text", text,
                 "from", from,
                 "size", size
-        );
-        return get("/search?text={text}&from={from}&size={size}", userId, parameters);
+        ));
+        String cursorQuery = "";
+        if (after != null) {
+            parameters.put("after", after);
+            cursorQuery = "&after={after}";
+        }
+        return get("/search?text={text}&from={from}&size={size}" + cursorQuery, userId, parameters);
     }
 
     public ResponseEntity<Object> createComment(long userId, long itemId, CommentDto dto) {
         return post("/" + itemId + "/comment", userId, dto);
     }
+
+    public ResponseEntity<Object> getComments(long userId, long itemId, Integer from, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "size", size
+        );
+        return get("/" + itemId + "/comments?from={from}&size={size}", userId, parameters);
+    }
 }
@@ -5,9 +5,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.comment.CommentDto;
+import ru.practicum.shareit.item.dto.ItemBulkUpdateDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
 
@@ -28,6 +30,15 @@ public class ItemController {
         return client.create(owner, dto);
     }
 
+    @PatchMapping("/bulk")
+    public ResponseEntity<Object> updateItems(
+            @Valid @RequestBody ItemBulkUpdateDto dto,
+            @RequestHeader(USER_ID_HEADER) Long user
+    ) {
+        log.info("Request to update {} items.", dto.getItems().size());
+        return client.updateBulk(user, dto);
+    }
+
     @PatchMapping("/{itemId}")
     public ResponseEntity<Object> updateItem(
             @RequestBody ItemDto dto,
@@ -47,10 +58,22 @@ public class ItemController {
         return client.getById(user, itemId);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<Object> getItemAvailability(
+            @PathVariable Long itemId,
+            @RequestHeader(USER_ID_HEADER) Long user,
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(defaultValue = "HOUR") String granularity
+    ) {
+        log.info("Request to get availability of item {} from {} to {}.", itemId, from, to);
+        return client.getAvailability(user, itemId, from, to, granularity);
+    }
+
     @GetMapping
     public ResponseEntity<Object> getUserItems(@RequestHeader(USER_ID_HEADER) Long owner,
                                                @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-                                               @RequestParam(defaultValue = "10") @Positive Integer size
+                                               @RequestParam(defaultValue = "10") @Positive @Max(100) Integer size
     ) {
         log.info("Request to receive user {}' items.", owner);
         return client.getUserItems(owner, from, size);
@@ -61,10 +84,11 @@ public class ItemController {
             @RequestParam String text,
             @RequestHeader(USER_ID_HEADER) Long user,
             @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-            @RequestParam(defaultValue = "10") @Positive Integer size
+            @RequestParam(defaultValue = "10") @Positive @Max(100) Integer size,
+            @RequestParam(required = false) String after
     ) {
         log.info("Request to search items by \"{}\".", text);
-        return client.searchByText(user, text, from, size);
+        return client.searchByText(user, text, from, size, after);
     }
 
     @PostMapping("/{itemId}/comment")
@@ -76,4 +100,15 @@ public class ItemController {
         log.info("Request to create comment.");
         return client.createComment(userId, itemId, dto);
     }
+
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<Object> getComments(
+            @PathVariable Long itemId,
+            @RequestHeader(USER_ID_HEADER) Long userId,
+            @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
+            @RequestParam(defaultValue = "10") @Positive @Max(100) Integer size
+    ) {
+        log.info("Request to get comments of item {}.", itemId);
+        return client.getComments(userId, itemId, from, size);
+    }
 }
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+
+@Data
+@Builder
+public class ItemChangeDto {
+    @NotNull
+    @Positive
+    private Long itemId;
+    @NotNull
+    private ItemDto changes;
+}
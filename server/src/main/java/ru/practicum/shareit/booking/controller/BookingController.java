@@ -3,13 +3,19 @@ package ru.practicum.shareit.booking.controller;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingExtendedDto;
-import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.service.BookingCursor;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.ConflictRetry;
 import ru.practicum.shareit.exception.UnsupportedStateException;
 
+import javax.servlet.http.HttpServletResponse;
 import java.util.List;
 
 @RestController
@@ -19,6 +25,7 @@ import java.util.List;
 public class BookingController {
     private final BookingService bookingService;
     private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 
     @PostMapping
     public BookingExtendedDto createBooking(@RequestHeader(USER_ID_HEADER) Long userId,
@@ -27,15 +34,43 @@ public class BookingController {
         return bookingService.createBooking(bookingDto, userId);
     }
 
+    @PostMapping("/batch")
+    public List<BookingBatchResultDto> createBookings(@RequestHeader(USER_ID_HEADER) Long userId,
+                                                      @RequestBody List<BookingDto> bookingDtos) {
+        log.info("Request to create {} bookings.", bookingDtos.size());
+        return bookingService.createBookings(bookingDtos, userId);
+    }
+
+    @PatchMapping("/approve")
+    public List<BookingDecisionResultDto> approveBookings(@RequestHeader(USER_ID_HEADER) Long userId,
+                                                          @RequestBody BookingDecisionDto decisionDto) {
+        log.info("Request to approve {} bookings.", decisionDto.getBookingIds().size());
+        return ConflictRetry.run(() -> bookingService.approveOrRejectBookings(decisionDto.getBookingIds(), userId,
+                decisionDto.getApproved()), "Bookings were changed concurrently.");
+    }
+
     @PatchMapping("/{bookingId}")
-    public Booking approveBooking(@RequestHeader(USER_ID_HEADER) Long userId,
+    public BookingExtendedDto approveBooking(@RequestHeader(USER_ID_HEADER) Long userId,
                                   @PathVariable Long bookingId,
                                   @RequestParam boolean approved) {
         log.info("Request to approve booking.");
-        return bookingService.approveOrRejectBooking(bookingId, userId, approved);
+        return ConflictRetry.run(() -> bookingService.approveOrRejectBooking(bookingId, userId, approved),
+                String.format("Booking:%d was changed concurrently.", bookingId));
     }
 
 
+    @GetMapping("/counts")
+    public BookingCountsDto findUserBookingCounts(@RequestHeader(USER_ID_HEADER) Long userId) {
+        log.info("Request to receive user:{} booking counts.", userId);
+        return bookingService.getUserBookingCounts(userId);
+    }
+
+    @GetMapping("/owner/counts")
+    public BookingCountsDto findItemOwnerBookingCounts(@RequestHeader(USER_ID_HEADER) Long userId) {
+        log.info("Request to receive item owner:{} booking counts.", userId);
+        return bookingService.getItemOwnerBookingCounts(userId);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingExtendedDto findBookingById(@RequestHeader(USER_ID_HEADER) Long userId,
                                               @PathVariable Long bookingId) {
@@ -47,10 +82,15 @@ public class BookingController {
     public List<BookingExtendedDto> findUserBookings(@RequestHeader(USER_ID_HEADER) Long userId,
                                                      @RequestParam Integer from,
                                                      @RequestParam Integer size,
-                                                     @RequestParam BookingState state) {
+                                                     @RequestParam BookingState state,
+                                                     @RequestParam(required = false) String after,
+                                                     HttpServletResponse response) {
         log.info("Request to receive user:{} bookings.", userId);
         try {
-            return bookingService.getUserBookings(userId, state, from, size);
+            if (after == null) {
+                return bookingService.getUserBookings(userId, state, from, size);
+            }
+            return withNextCursor(bookingService.getUserBookingsAfter(userId, state, after, size), size, response);
         } catch (IllegalArgumentException e) {
             throw new UnsupportedStateException("Unknown state: " + state);
         }
@@ -60,12 +100,26 @@ public class BookingController {
     public List<BookingExtendedDto> findByItemOwnerBookings(@RequestHeader(USER_ID_HEADER) Long userId,
                                                             @RequestParam Integer from,
                                                             @RequestParam Integer size,
-                                                            @RequestParam BookingState state) {
+                                                            @RequestParam BookingState state,
+                                                            @RequestParam(required = false) String after,
+                                                            HttpServletResponse response) {
         log.info("Request to receive item owner:{} bookings.", userId);
         try {
-            return bookingService.getItemOwnerBookings(userId, state, from, size);
+            if (after == null) {
+                return bookingService.getItemOwnerBookings(userId, state, from, size);
+            }
+            return withNextCursor(bookingService.getItemOwnerBookingsAfter(userId, state, after, size), size,
+                    response);
         } catch (IllegalArgumentException e) {
             throw new UnsupportedStateException("Unknown state: " + state);
         }
     }
+
+    private List<BookingExtendedDto> withNextCursor(List<BookingExtendedDto> bookings, Integer size,
+                                                    HttpServletResponse response) {
+        if (!bookings.isEmpty() && bookings.size() == size) {
+            response.setHeader(NEXT_CURSOR_HEADER, BookingCursor.of(bookings.get(bookings.size() - 1)).encode());
+        }
+        return bookings;
+    }
 }
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class BookingCountsDto {
+    private Long all;
+    private Long waiting;
+    private Long rejected;
+    private Long current;
+    private Long past;
+    private Long future;
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import ru.practicum.shareit.booking.model.BookingDecisionOutcome;
+
+@Data
+@Builder
+public class BookingDecisionResultDto {
+    private Long bookingId;
+    private BookingDecisionOutcome outcome;
+}
@@ -1,20 +1,30 @@
 package ru.practicum.shareit.booking.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import ru.practicum.shareit.booking.model.BookingStatus;
-import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.item.dto.ItemShortDto;
+import ru.practicum.shareit.user.dto.UserShortDto;
 
 import java.time.LocalDateTime;
 
 @Data
 @Builder
+@AllArgsConstructor
 public class BookingExtendedDto {
     private Long id;
     private LocalDateTime start;
     private LocalDateTime end;
-    private Item item;
-    private User booker;
+    private ItemShortDto item;
+    private UserShortDto booker;
     private BookingStatus status;
+
+    public BookingExtendedDto(Long id, LocalDateTime start, LocalDateTime end, Long itemId, String itemName,
+                              Long bookerId, String bookerName, BookingStatus status) {
+        this(id, start, end,
+                ItemShortDto.builder().id(itemId).name(itemName).build(),
+                UserShortDto.builder().id(bookerId).name(bookerName).build(),
+                status);
+    }
 }
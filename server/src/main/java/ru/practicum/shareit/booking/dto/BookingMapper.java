@@ -3,6 +3,9 @@ package ru.practicum.shareit.booking.dto;
 import lombok.experimental.UtilityClass;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+import ru.practicum.shareit.user.dto.UserMapper;
 
 @UtilityClass
 public class BookingMapper {
@@ -20,8 +23,8 @@ public class BookingMapper {
                 .id(booking.getId())
                 .start(booking.getStart())
                 .end(booking.getEnd())
-                .booker(booking.getBooker())
-                .item(booking.getItem())
+                .booker(UserMapper.toUserShortDto(booking.getBooker()))
+                .item(ItemMapper.toItemShortDto(booking.getItem()))
                 .status(booking.getStatus())
                 .build();
     }
@@ -36,4 +39,32 @@ public class BookingMapper {
                 .end(booking.getEnd())
                 .build();
     }
+
+    public BookingItemDto toLastBookingItemDto(ItemBookingSummary summary) {
+        if (summary == null || summary.getLastBookingId() == null) {
+            return null;
+        }
+        return BookingItemDto.builder()
+                .id(summary.getLastBookingId())
+                .itemId(summary.getItemId())
+                .bookerId(summary.getLastBookerId())
+                .start(summary.getLastStart())
+                .status(BookingStatus.APPROVED)
+                .end(summary.getLastEnd())
+                .build();
+    }
+
+    public BookingItemDto toNextBookingItemDto(ItemBookingSummary summary) {
+        if (summary == null || summary.getNextBookingId() == null) {
+            return null;
+        }
+        return BookingItemDto.builder()
+                .id(summary.getNextBookingId())
+                .itemId(summary.getItemId())
+                .bookerId(summary.getNextBookerId())
+                .start(summary.getNextStart())
+                .status(BookingStatus.APPROVED)
+                .end(summary.getNextEnd())
+                .build();
+    }
 }
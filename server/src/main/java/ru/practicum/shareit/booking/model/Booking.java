@@ -3,6 +3,7 @@ package ru.practicum.shareit.booking.model;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
@@ -11,6 +12,7 @@ import javax.persistence.*;
 import java.time.LocalDateTime;
 
 @Data
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @Builder
 @Entity
 @Table(name = "BOOKINGS")
@@ -18,16 +20,20 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 public class Booking {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @EqualsAndHashCode.Include
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "BOOKINGS_SEQ", allocationSize = 50)
     private Long id;
     @Column(name = "START_TIME", nullable = false)
     private LocalDateTime start;
     @Column(name = "END_TIME", nullable = false)
     private LocalDateTime end;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private Item item;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private User booker;
     @Enumerated(EnumType.STRING)
     private BookingStatus status;
+    @Version
+    private long version;
 }
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking.model;
+
+public enum BookingDecisionOutcome {
+    APPROVED,
+    REJECTED,
+    NOT_FOUND,
+    NOT_WAITING,
+    OVERLAP
+}
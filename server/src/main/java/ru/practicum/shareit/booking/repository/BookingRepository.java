@@ -2,19 +2,36 @@ package ru.practicum.shareit.booking.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
+    @Override
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Optional<Booking> findById(Long id);
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> findAllByBooker(User booker, Pageable page);
 
     List<Booking> findAllByBooker(User booker, Sort sort);
 
+    boolean existsByBookerIdAndItemIdAndStatusAndEndBefore(Long bookerId, Long itemId, BookingStatus status,
+                                                           LocalDateTime end);
+
     List<Booking> findAllByBookerAndStatus(User booker, BookingStatus status, Pageable page);
 
     List<Booking> findAllByBookerAndStatus(User booker, BookingStatus status, Sort sort);
@@ -30,4 +47,76 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> findAllByItemIn(List<Item> items, Pageable pageable);
 
     List<Booking> findAllByItemIn(List<Item> items, Sort sort);
-}
\ No newline at end of file
+
+    List<Booking> findAllByItemIdAndStatusInAndEndAfter(Long itemId, Collection<BookingStatus> statuses,
+                                                        LocalDateTime end);
+
+    List<Booking> findAllByItemIdInAndStatusAndStartBeforeAndEndAfter(Collection<Long> itemIds, BookingStatus status,
+                                                                     LocalDateTime end, LocalDateTime start);
+
+    @Query("select count(b) > 0 from Booking b " +
+            "where b.item.id = :itemId " +
+            "and b.status = ru.practicum.shareit.booking.model.BookingStatus.APPROVED " +
+            "and b.start < :end and b.end > :start")
+    boolean existsApprovedOverlap(@Param("itemId") Long itemId,
+                                  @Param("start") LocalDateTime start,
+                                  @Param("end") LocalDateTime end);
+
+    @Query(value = "select b.* from (select bk.*, " +
+            "row_number() over (partition by bk.item_id order by bk.start_time desc, bk.id desc) as rn " +
+            "from Bookings as bk where bk.item_id in (:itemIds) " +
+            "and bk.status = 'APPROVED' and bk.start_time < :now) as b " +
+            "where b.rn = 1", nativeQuery = true)
+    List<Booking> findLastApprovedByItemIds(@Param("itemIds") Collection<Long> itemIds,
+                                            @Param("now") LocalDateTime now);
+
+    @Query(value = "select b.* from (select bk.*, " +
+            "row_number() over (partition by bk.item_id order by bk.start_time, bk.id) as rn " +
+            "from Bookings as bk where bk.item_id in (:itemIds) " +
+            "and bk.status = 'APPROVED' and bk.start_time >= :now) as b " +
+            "where b.rn = 1", nativeQuery = true)
+    List<Booking> findNextApprovedByItemIds(@Param("itemIds") Collection<Long> itemIds,
+                                            @Param("now") LocalDateTime now);
+
+    Optional<Booking> findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc(Long itemId, BookingStatus status,
+                                                                               LocalDateTime now);
+
+    Optional<Booking> findFirstByItemIdAndStatusAndStartGreaterThanEqualOrderByStartAsc(Long itemId,
+                                                                                        BookingStatus status,
+                                                                                        LocalDateTime now);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from Booking b where b.id in :ids order by b.id")
+    List<Booking> findAllByIdInForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("update Booking b set b.status = :status, b.version = b.version + 1 " +
+            "where b.id in :ids " +
+            "and b.status = ru.practicum.shareit.booking.model.BookingStatus.WAITING " +
+            "and b.item.id in (select i.id from Item i where i.owner.id = :ownerId)")
+    int updateWaitingStatus(@Param("ids") Collection<Long> ids,
+                            @Param("ownerId") Long ownerId,
+                            @Param("status") BookingStatus status);
+
+    @Query("select new ru.practicum.shareit.booking.dto.BookingCountsDto(count(b), " +
+            "coalesce(sum(case when b.status = ru.practicum.shareit.booking.model.BookingStatus.WAITING " +
+            "then 1 else 0 end), 0), " +
+            "coalesce(sum(case when b.status = ru.practicum.shareit.booking.model.BookingStatus.REJECTED " +
+            "then 1 else 0 end), 0), " +
+            "coalesce(sum(case when b.start < :now and b.end > :now then 1 else 0 end), 0), " +
+            "coalesce(sum(case when b.end < :now then 1 else 0 end), 0), " +
+            "coalesce(sum(case when b.start > :now then 1 else 0 end), 0)) " +
+            "from Booking b where b.booker.id = :bookerId")
+    BookingCountsDto countBookerBookings(@Param("bookerId") Long bookerId, @Param("now") LocalDateTime now);
+
+    @Query("select new ru.practicum.shareit.booking.dto.BookingCountsDto(count(b), " +
+            "coalesce(sum(case when b.status = ru.practicum.shareit.booking.model.BookingStatus.WAITING " +
+            "then 1 else 0 end), 0), " +
+            "coalesce(sum(case when b.status = ru.practicum.shareit.booking.model.BookingStatus.REJECTED " +
+            "then 1 else 0 end), 0), " +
+            "coalesce(sum(case when b.start < :now and b.end > :now then 1 else 0 end), 0), " +
+            "coalesce(sum(case when b.end < :now then 1 else 0 end), 0), " +
+            "coalesce(sum(case when b.start > :now then 1 else 0 end), 0)) " +
+            "from Booking b where b.item.owner.id = :ownerId")
+    BookingCountsDto countOwnerBookings(@Param("ownerId") Long ownerId, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.dto.BookingExtendedDto;
+import ru.practicum.shareit.booking.model.BookingState;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface BookingRepositoryCustom {
+    List<BookingExtendedDto> findBookerBookings(Long bookerId, BookingState state, Pageable page);
+
+    List<BookingExtendedDto> findOwnerBookings(Long ownerId, BookingState state, Pageable page);
+
+    List<BookingExtendedDto> findBookerBookingsAfter(Long bookerId, BookingState state,
+                                                     LocalDateTime afterStart, Long afterId, int size);
+
+    List<BookingExtendedDto> findOwnerBookingsAfter(Long ownerId, BookingState state,
+                                                    LocalDateTime afterStart, Long afterId, int size);
+}
@@ -0,0 +1,109 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.dto.BookingExtendedDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BookingRepositoryCustomImpl implements BookingRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<BookingExtendedDto> findBookerBookings(Long bookerId, BookingState state, Pageable page) {
+        return find(false, bookerId, state, null, null, page.getOffset(), page.getPageSize());
+    }
+
+    @Override
+    public List<BookingExtendedDto> findOwnerBookings(Long ownerId, BookingState state, Pageable page) {
+        return find(true, ownerId, state, null, null, page.getOffset(), page.getPageSize());
+    }
+
+    @Override
+    public List<BookingExtendedDto> findBookerBookingsAfter(Long bookerId, BookingState state,
+                                                            LocalDateTime afterStart, Long afterId, int size) {
+        return find(false, bookerId, state, afterStart, afterId, 0, size);
+    }
+
+    @Override
+    public List<BookingExtendedDto> findOwnerBookingsAfter(Long ownerId, BookingState state,
+                                                           LocalDateTime afterStart, Long afterId, int size) {
+        return find(true, ownerId, state, afterStart, afterId, 0, size);
+    }
+
+    private List<BookingExtendedDto> find(boolean byOwner, Long userId, BookingState state,
+                                          LocalDateTime afterStart, Long afterId, long offset, int size) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookingExtendedDto> query = cb.createQuery(BookingExtendedDto.class);
+        Root<Booking> booking = query.from(Booking.class);
+        Join<Booking, Item> item = booking.join("item");
+        Join<Booking, User> booker = booking.join("booker");
+        Path<LocalDateTime> start = booking.get("start");
+        Path<Long> id = booking.get("id");
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (byOwner) {
+            predicates.add(cb.equal(item.get("owner").get("id"), userId));
+        } else {
+            predicates.add(cb.equal(booker.get("id"), userId));
+        }
+        predicates.add(getStatePredicate(cb, booking, state));
+        if (afterStart != null) {
+            predicates.add(cb.or(
+                    cb.lessThan(start, afterStart),
+                    cb.and(cb.equal(start, afterStart), cb.lessThan(id, afterId))));
+        }
+
+        query.select(cb.construct(BookingExtendedDto.class,
+                        id, start, booking.get("end"),
+                        item.get("id"), item.get("name"),
+                        booker.get("id"), booker.get("name"),
+                        booking.get("status")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(start), cb.desc(id));
+
+        return entityManager.createQuery(query)
+                .setFirstResult((int) offset)
+                .setMaxResults(size)
+                .getResultList();
+    }
+
+    private Predicate getStatePredicate(CriteriaBuilder cb, Root<Booking> booking, BookingState state) {
+        LocalDateTime now = LocalDateTime.now();
+        Path<LocalDateTime> start = booking.get("start");
+        Path<LocalDateTime> end = booking.get("end");
+
+        switch (state) {
+            case ALL:
+                return cb.conjunction();
+            case WAITING:
+            case REJECTED:
+            case CANCELLED:
+                return cb.equal(booking.get("status"), BookingStatus.valueOf(state.name()));
+            case PAST:
+                return cb.lessThan(end, now);
+            case CURRENT:
+                return cb.and(cb.lessThan(start, now), cb.greaterThan(end, now));
+            case FUTURE:
+                return cb.and(cb.greaterThan(start, now), cb.greaterThan(end, now));
+            default:
+                throw new ValidationException("Provided wrong state of booking.");
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.booking.archive.enabled", havingValue = "true")
+public class BookingArchiveJob {
+    private static final int YEARS_AHEAD = 3;
+    private static final String HISTORY_PARTITION = "BOOKINGS_HISTORY";
+    private static final String YEAR_PARTITION = "BOOKINGS_Y%d";
+    private static final String PARTITION_EXISTS_SQL = "SELECT TO_REGCLASS(?) IS NOT NULL";
+    private static final String DETACH_DEFAULT_SQL = "ALTER TABLE BOOKINGS DETACH PARTITION BOOKINGS_DEFAULT";
+    private static final String ATTACH_DEFAULT_SQL = "ALTER TABLE BOOKINGS ATTACH PARTITION BOOKINGS_DEFAULT DEFAULT";
+    private static final String CREATE_PARTITION_SQL = "CREATE TABLE %s " +
+            "PARTITION OF BOOKINGS FOR VALUES FROM (%s) TO ('%s')";
+    private static final String MOVE_FROM_DEFAULT_SQL = "WITH MOVED AS (" +
+            "DELETE FROM BOOKINGS_DEFAULT WHERE END_TIME >= %s AND END_TIME < '%s' " +
+            "RETURNING ID, START_TIME, END_TIME, ITEM_ID, BOOKER_ID, STATUS, VERSION) " +
+            "INSERT INTO BOOKINGS (ID, START_TIME, END_TIME, ITEM_ID, BOOKER_ID, STATUS, VERSION) " +
+            "SELECT ID, START_TIME, END_TIME, ITEM_ID, BOOKER_ID, STATUS, VERSION FROM MOVED";
+    private static final String ARCHIVE_SQL = "WITH MOVED AS (" +
+            "DELETE FROM BOOKINGS WHERE END_TIME < ? AND ID IN (" +
+            "SELECT ID FROM BOOKINGS " +
+            "WHERE END_TIME < ? AND STATUS IN ('REJECTED', 'CANCELLED', 'WAITING') " +
+            "ORDER BY END_TIME LIMIT ?) " +
+            "RETURNING ID, START_TIME, END_TIME, ITEM_ID, BOOKER_ID, STATUS, VERSION) " +
+            "INSERT INTO BOOKINGS_ARCHIVE (ID, START_TIME, END_TIME, ITEM_ID, BOOKER_ID, STATUS, VERSION) " +
+            "SELECT ID, START_TIME, END_TIME, ITEM_ID, BOOKER_ID, STATUS, VERSION FROM MOVED";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int retentionDays;
+    private final int chunkSize;
+    private final int maxChunks;
+
+    public BookingArchiveJob(JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${shareit.booking.archive.retention-days:180}") int retentionDays,
+                             @Value("${shareit.booking.archive.chunk-size:1000}") int chunkSize,
+                             @Value("${shareit.booking.archive.max-chunks:100}") int maxChunks) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.retentionDays = retentionDays;
+        this.chunkSize = chunkSize;
+        this.maxChunks = maxChunks;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${shareit.booking.archive.partition-cron:0 0 3 * * *}")
+    public void createPartitions() {
+        int year = LocalDate.now().getYear();
+        createPartition(HISTORY_PARTITION, null, LocalDate.of(year - 1, 1, 1));
+        for (int partitionYear = year - 1; partitionYear <= year + YEARS_AHEAD; partitionYear++) {
+            createPartition(String.format(YEAR_PARTITION, partitionYear),
+                    LocalDate.of(partitionYear, 1, 1), LocalDate.of(partitionYear + 1, 1, 1));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.archive.delay:PT1H}",
+            initialDelayString = "${shareit.booking.archive.delay:PT1H}")
+    public void archiveBookings() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(retentionDays));
+        int archived = 0;
+        int chunks = 0;
+        int moved;
+        do {
+            Integer updated = transactionTemplate.execute(status ->
+                    jdbcTemplate.update(ARCHIVE_SQL, cutoff, cutoff, chunkSize));
+            moved = updated == null ? 0 : updated;
+            archived += moved;
+            chunks++;
+        } while (moved == chunkSize && chunks < maxChunks);
+        log.info("Archived {} bookings finished before {} in {} chunks.", archived, cutoff, chunks);
+    }
+
+    private void createPartition(String name, LocalDate from, LocalDate to) {
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(PARTITION_EXISTS_SQL, Boolean.class, name))) {
+            return;
+        }
+        // Rows of the new range may already sit in the default partition, which would make a plain
+        // CREATE ... PARTITION OF fail. Detach it, create the partition and route those rows into it.
+        Integer moved = transactionTemplate.execute(status -> {
+            jdbcTemplate.execute(DETACH_DEFAULT_SQL);
+            jdbcTemplate.execute(String.format(CREATE_PARTITION_SQL, name,
+                    from == null ? "MINVALUE" : "'" + from + "'", to));
+            int rows = jdbcTemplate.update(String.format(MOVE_FROM_DEFAULT_SQL,
+                    from == null ? "'-infinity'" : "'" + from + "'", to));
+            jdbcTemplate.execute(ATTACH_DEFAULT_SQL);
+            return rows;
+        });
+        log.info("Created booking partition {} and moved {} bookings from the default partition.", name, moved);
+    }
+}
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.booking.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.function.Supplier;
+
+@Component
+public class BookingCountsCache {
+    private final Cache<Long, BookingCountsDto> bookerCounts;
+    private final Cache<Long, BookingCountsDto> ownerCounts;
+
+    public BookingCountsCache(MeterRegistry meterRegistry,
+                              @Value("${shareit.booking.counts-cache.max-size:10000}") long maxSize,
+                              @Value("${shareit.booking.counts-cache.ttl:PT10S}") Duration ttl) {
+        this.bookerCounts = build(maxSize, ttl);
+        this.ownerCounts = build(maxSize, ttl);
+        CaffeineCacheMetrics.monitor(meterRegistry, bookerCounts, "booking.counts.booker");
+        CaffeineCacheMetrics.monitor(meterRegistry, ownerCounts, "booking.counts.owner");
+    }
+
+    public BookingCountsDto getBookerCounts(Long bookerId, Supplier<BookingCountsDto> loader) {
+        return bookerCounts.get(bookerId, ignored -> loader.get());
+    }
+
+    public BookingCountsDto getOwnerCounts(Long ownerId, Supplier<BookingCountsDto> loader) {
+        return ownerCounts.get(ownerId, ignored -> loader.get());
+    }
+
+    public void onBookingChanged(Booking booking) {
+        Long bookerId = booking.getBooker().getId();
+        Long ownerId = booking.getItem().getOwner().getId();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(bookerId, ownerId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(bookerId, ownerId);
+            }
+        });
+    }
+
+    public void evictAll(Collection<Long> bookerIds, Collection<Long> ownerIds) {
+        bookerCounts.invalidateAll(bookerIds);
+        ownerCounts.invalidateAll(ownerIds);
+    }
+
+    private void evict(Long bookerId, Long ownerId) {
+        bookerCounts.invalidate(bookerId);
+        ownerCounts.invalidate(ownerId);
+    }
+
+    private static Cache<Long, BookingCountsDto> build(long maxSize, Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+}
@@ -0,0 +1,43 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.booking.dto.BookingExtendedDto;
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+@Getter
+@RequiredArgsConstructor
+public class BookingCursor {
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime start;
+    private final Long id;
+
+    public static BookingCursor of(BookingExtendedDto booking) {
+        return new BookingCursor(booking.getStart(), booking.getId());
+    }
+
+    public static BookingCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+            return new BookingCursor(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new ValidationException("Provided wrong booking cursor.");
+        }
+    }
+
+    public String encode() {
+        String value = start + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
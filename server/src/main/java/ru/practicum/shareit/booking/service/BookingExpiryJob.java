@@ -0,0 +1,154 @@
+package ru.practicum.shareit.booking.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.service.ItemAvailabilityCache;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.booking.expiry.enabled", havingValue = "true", matchIfMissing = true)
+public class BookingExpiryJob {
+    private static final long LOCK_KEY = 2_024_013L;
+    private static final String LOCK_SQL = "SELECT pg_try_advisory_xact_lock(?)";
+    private static final String SELECT_EXPIRED_SQL = "SELECT B.ID, B.ITEM_ID, B.BOOKER_ID, I.OWNER_ID " +
+            "FROM BOOKINGS B JOIN ITEMS I ON I.ID = B.ITEM_ID " +
+            "WHERE B.STATUS = 'WAITING' AND B.START_TIME < ? " +
+            "ORDER BY B.START_TIME LIMIT ?";
+    private static final String EXPIRE_SQL = "UPDATE BOOKINGS SET STATUS = 'CANCELLED', VERSION = VERSION + 1 " +
+            "WHERE STATUS = 'WAITING' AND ID IN (:ids)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ItemAvailabilityCache availabilityCache;
+    private final BookingCountsCache countsCache;
+    private final Counter sweptCounter;
+    private final Timer sweepTimer;
+    private final int chunkSize;
+    private final int maxChunks;
+    private Boolean advisoryLock;
+
+    public BookingExpiryJob(JdbcTemplate jdbcTemplate,
+                            TransactionTemplate transactionTemplate,
+                            ItemAvailabilityCache availabilityCache,
+                            BookingCountsCache countsCache,
+                            MeterRegistry meterRegistry,
+                            @Value("${shareit.booking.expiry.chunk-size:500}") int chunkSize,
+                            @Value("${shareit.booking.expiry.max-chunks:100}") int maxChunks) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = transactionTemplate;
+        this.availabilityCache = availabilityCache;
+        this.countsCache = countsCache;
+        this.sweptCounter = Counter.builder("shareit.booking.expiry.swept")
+                .description("WAITING bookings moved to CANCELLED after their start passed")
+                .register(meterRegistry);
+        this.sweepTimer = Timer.builder("shareit.booking.expiry.sweep")
+                .description("Time spent per expiry sweep")
+                .register(meterRegistry);
+        this.chunkSize = chunkSize;
+        this.maxChunks = maxChunks;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.expiry.delay:PT1M}",
+            initialDelayString = "${shareit.booking.expiry.delay:PT1M}")
+    public void expireBookings() {
+        sweepTimer.record(this::sweep);
+    }
+
+    private void sweep() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now());
+        Set<Long> itemIds = new HashSet<>();
+        Set<Long> bookerIds = new HashSet<>();
+        Set<Long> ownerIds = new HashSet<>();
+        int expired = 0;
+        int chunks = 0;
+        boolean hasMore = true;
+        while (hasMore && chunks < maxChunks) {
+            ExpiredChunk chunk = transactionTemplate.execute(status -> {
+                if (usesAdvisoryLock() && !Boolean.TRUE.equals(
+                        jdbcTemplate.queryForObject(LOCK_SQL, Boolean.class, LOCK_KEY))) {
+                    return null;
+                }
+                return expireChunk(cutoff);
+            });
+            if (chunk == null) {
+                log.debug("Booking expiry sweep is running on another node.");
+                break;
+            }
+            for (ExpiredBooking booking : chunk.getBookings()) {
+                itemIds.add(booking.getItemId());
+                bookerIds.add(booking.getBookerId());
+                ownerIds.add(booking.getOwnerId());
+            }
+            expired += chunk.getExpired();
+            chunks++;
+            hasMore = chunk.getBookings().size() == chunkSize;
+        }
+
+        sweptCounter.increment(expired);
+        if (expired > 0) {
+            availabilityCache.evictAll(itemIds);
+            countsCache.evictAll(bookerIds, ownerIds);
+            log.info("Expired {} waiting bookings started before {} in {} chunks.", expired, cutoff, chunks);
+        }
+    }
+
+    private ExpiredChunk expireChunk(Timestamp cutoff) {
+        List<ExpiredBooking> bookings = jdbcTemplate.query(SELECT_EXPIRED_SQL, (rs, rowNum) -> new ExpiredBooking(
+                rs.getLong("ID"), rs.getLong("ITEM_ID"), rs.getLong("BOOKER_ID"), rs.getLong("OWNER_ID")),
+                cutoff, chunkSize);
+        if (bookings.isEmpty()) {
+            return new ExpiredChunk(bookings, 0);
+        }
+        List<Long> ids = bookings.stream()
+                .map(ExpiredBooking::getId)
+                .collect(Collectors.toList());
+        return new ExpiredChunk(bookings, namedJdbcTemplate.update(EXPIRE_SQL, Map.of("ids", ids)));
+    }
+
+    private boolean usesAdvisoryLock() {
+        if (advisoryLock == null) {
+            String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            advisoryLock = "PostgreSQL".equals(database);
+        }
+        return advisoryLock;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class ExpiredBooking {
+        private final Long id;
+        private final Long itemId;
+        private final Long bookerId;
+        private final Long ownerId;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class ExpiredChunk {
+        private final List<ExpiredBooking> bookings;
+        private final int expired;
+    }
+}
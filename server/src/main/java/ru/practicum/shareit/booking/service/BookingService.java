@@ -1,8 +1,10 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingExtendedDto;
-import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
 
 import java.util.List;
@@ -10,11 +12,23 @@ import java.util.List;
 public interface BookingService {
     BookingExtendedDto createBooking(BookingDto bookingDto, Long owner);
 
+    List<BookingBatchResultDto> createBookings(List<BookingDto> bookingDtos, Long bookerId);
+
     BookingExtendedDto getBookingById(Long bookingId, Long userId);
 
     List<BookingExtendedDto> getUserBookings(Long userId, BookingState state, Integer from, Integer size);
 
     List<BookingExtendedDto> getItemOwnerBookings(Long ownerId, BookingState state, Integer from, Integer size);
 
-    Booking approveOrRejectBooking(Long bookingId, Long itemOwnerId, Boolean approved);
+    List<BookingExtendedDto> getUserBookingsAfter(Long userId, BookingState state, String after, Integer size);
+
+    List<BookingExtendedDto> getItemOwnerBookingsAfter(Long ownerId, BookingState state, String after, Integer size);
+
+    BookingCountsDto getUserBookingCounts(Long userId);
+
+    BookingCountsDto getItemOwnerBookingCounts(Long ownerId);
+
+    BookingExtendedDto approveOrRejectBooking(Long bookingId, Long itemOwnerId, Boolean approved);
+
+    List<BookingDecisionResultDto> approveOrRejectBookings(List<Long> bookingIds, Long itemOwnerId, Boolean approved);
 }
@@ -4,10 +4,14 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingExtendedDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingDecisionOutcome;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
@@ -15,22 +19,36 @@ import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemAvailabilityCache;
+import ru.practicum.shareit.item.service.ItemBookingSummaryService;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.function.Predicate;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class BookingServiceImpl implements BookingService {
+    private static final int MAX_BATCH_SIZE = 100;
+
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final ItemAvailabilityCache availabilityCache;
+    private final BookingCountsCache countsCache;
+    private final ItemBookingSummaryService bookingSummaryService;
 
     @Transactional
     @Override
@@ -44,12 +62,59 @@ public class BookingServiceImpl implements BookingService {
         if (!item.getAvailable()) {
             throw new ValidationException(String.format("Item:%d is unavailable.", item.getId()));
         }
+        checkNoApprovedOverlap(item.getId(), bookingDto.getStart(), bookingDto.getEnd());
 
         Booking booking = BookingMapper.toBooking(bookingDto);
         booking.setItem(item);
         booking.setBooker(user);
 
-        return BookingMapper.toBookingExtendedDto(bookingRepository.save(booking));
+        Booking saved = bookingRepository.save(booking);
+        onBookingChanged(saved);
+        return BookingMapper.toBookingExtendedDto(saved);
+    }
+
+    @Transactional
+    @Override
+    public List<BookingBatchResultDto> createBookings(List<BookingDto> bookingDtos, Long bookerId) {
+        if (bookingDtos.size() > MAX_BATCH_SIZE) {
+            throw new ValidationException(String.format("At most %d bookings can be created at once.",
+                    MAX_BATCH_SIZE));
+        }
+        User booker = getUserById(bookerId);
+        Set<Long> itemIds = bookingDtos.stream()
+                .map(BookingDto::getItemId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        Map<Long, List<Booking>> approvedByItems = getApprovedBookings(itemIds, bookingDtos).stream()
+                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
+
+        BookingBatchResultDto[] results = new BookingBatchResultDto[bookingDtos.size()];
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        List<Booking> accepted = new ArrayList<>();
+        for (int i = 0; i < bookingDtos.size(); i++) {
+            try {
+                accepted.add(toBatchBooking(bookingDtos.get(i), booker, items, approvedByItems));
+                acceptedIndexes.add(i);
+            } catch (NotFoundException | ValidationException e) {
+                results[i] = BookingBatchResultDto.builder()
+                        .index(i)
+                        .error(e.getMessage())
+                        .build();
+            }
+        }
+
+        List<Booking> saved = bookingRepository.saveAll(accepted);
+        for (int i = 0; i < saved.size(); i++) {
+            int index = acceptedIndexes.get(i);
+            onBookingChanged(saved.get(i));
+            results[index] = BookingBatchResultDto.builder()
+                    .index(index)
+                    .booking(BookingMapper.toBookingExtendedDto(saved.get(i)))
+                    .build();
+        }
+        return Arrays.asList(results);
     }
 
     @Override
@@ -74,9 +139,7 @@ public class BookingServiceImpl implements BookingService {
         Pagination pagination = new Pagination(from, size);
         Pageable page = pagination.getPageable();
 
-        return getBookingsByStatus(userId, state, page).stream()
-                .map(BookingMapper::toBookingExtendedDto)
-                .collect(Collectors.toList());
+        return bookingRepository.findBookerBookings(userId, state, page);
     }
 
     @Override
@@ -85,27 +148,134 @@ public class BookingServiceImpl implements BookingService {
         Pagination pagination = new Pagination(from, size);
         Pageable page = pagination.getPageable();
 
-        return getOwnerBookingsByStatus(ownerId, state, page).stream()
-                .map(BookingMapper::toBookingExtendedDto)
-                .collect(Collectors.toList());
+        return bookingRepository.findOwnerBookings(ownerId, state, page);
+    }
+
+    @Override
+    public List<BookingExtendedDto> getUserBookingsAfter(Long userId, BookingState state, String after, Integer size) {
+        getUserById(userId);
+        BookingCursor cursor = BookingCursor.decode(after);
+
+        return bookingRepository.findBookerBookingsAfter(userId, state,
+                cursor == null ? null : cursor.getStart(),
+                cursor == null ? null : cursor.getId(),
+                size);
+    }
+
+    @Override
+    public List<BookingExtendedDto> getItemOwnerBookingsAfter(Long ownerId, BookingState state, String after,
+                                                              Integer size) {
+        getUserById(ownerId);
+        BookingCursor cursor = BookingCursor.decode(after);
+
+        return bookingRepository.findOwnerBookingsAfter(ownerId, state,
+                cursor == null ? null : cursor.getStart(),
+                cursor == null ? null : cursor.getId(),
+                size);
     }
 
     @Transactional
     @Override
-    public Booking approveOrRejectBooking(Long bookingId, Long itemOwnerId, Boolean approved) {
+    public BookingExtendedDto approveOrRejectBooking(Long bookingId, Long itemOwnerId, Boolean approved) {
         Booking booking = getBookingById(bookingId);
 
         if (!booking.getItem().getOwner().getId().equals(itemOwnerId)) {
             throw new NotFoundException("Booker can not be an item owner.");
         }
 
-        if (booking.getStatus().equals(BookingStatus.APPROVED)) {
-            throw new ValidationException(String.format("Booking %d is already approved.", bookingId));
+        if (booking.getStatus() != BookingStatus.WAITING) {
+            throw new ValidationException(String.format("Booking %d is not waiting for approval.", bookingId));
+        }
+
+        if (approved) {
+            lockItem(booking.getItem().getId());
+            checkNoApprovedOverlap(booking.getItem().getId(), booking.getStart(), booking.getEnd());
         }
 
         booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
 
-        return bookingRepository.save(booking);
+        Booking saved = bookingRepository.save(booking);
+        if (approved) {
+            bookingSummaryService.onBookingApproved(saved);
+        }
+        onBookingChanged(saved);
+        return BookingMapper.toBookingExtendedDto(saved);
+    }
+
+    @Transactional
+    @Override
+    public List<BookingDecisionResultDto> approveOrRejectBookings(List<Long> bookingIds, Long itemOwnerId,
+                                                                  Boolean approved) {
+        getUserById(itemOwnerId);
+        Set<Long> ids = new LinkedHashSet<>(bookingIds);
+        if (approved) {
+            // Items before bookings, in id order, as the single-booking path locks them.
+            itemRepository.findAllByBookingIdInForUpdate(ids);
+        }
+        Map<Long, Booking> bookings = bookingRepository.findAllByIdInForUpdate(ids).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+
+        Map<Long, BookingDecisionOutcome> outcomes = new HashMap<>();
+        List<Booking> waiting = new ArrayList<>();
+        for (Long id : ids) {
+            Booking booking = bookings.get(id);
+            if (booking == null || !booking.getItem().getOwner().getId().equals(itemOwnerId)) {
+                outcomes.put(id, BookingDecisionOutcome.NOT_FOUND);
+            } else if (booking.getStatus() != BookingStatus.WAITING) {
+                outcomes.put(id, BookingDecisionOutcome.NOT_WAITING);
+            } else {
+                waiting.add(booking);
+            }
+        }
+
+        List<Booking> accepted = approved ? withoutOverlaps(waiting, outcomes) : waiting;
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        if (!accepted.isEmpty()) {
+            bookingRepository.updateWaitingStatus(accepted.stream().map(Booking::getId).collect(Collectors.toList()),
+                    itemOwnerId, status);
+        }
+        for (Booking booking : accepted) {
+            outcomes.put(booking.getId(), approved ? BookingDecisionOutcome.APPROVED : BookingDecisionOutcome.REJECTED);
+            if (approved) {
+                bookingSummaryService.onBookingApproved(booking);
+            }
+            onBookingChanged(Booking.builder()
+                    .id(booking.getId())
+                    .start(booking.getStart())
+                    .end(booking.getEnd())
+                    .item(booking.getItem())
+                    .booker(booking.getBooker())
+                    .status(status)
+                    .build());
+        }
+
+        return ids.stream()
+                .map(id -> BookingDecisionResultDto.builder()
+                        .bookingId(id)
+                        .outcome(outcomes.get(id))
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public BookingCountsDto getUserBookingCounts(Long userId) {
+        return countsCache.getBookerCounts(userId, () -> {
+            getUserById(userId);
+            return bookingRepository.countBookerBookings(userId, LocalDateTime.now());
+        });
+    }
+
+    @Override
+    public BookingCountsDto getItemOwnerBookingCounts(Long ownerId) {
+        return countsCache.getOwnerCounts(ownerId, () -> {
+            getUserById(ownerId);
+            return bookingRepository.countOwnerBookings(ownerId, LocalDateTime.now());
+        });
+    }
+
+    private void onBookingChanged(Booking booking) {
+        availabilityCache.onBookingChanged(booking);
+        countsCache.onBookingChanged(booking);
     }
 
     private User getUserById(Long userId) {
@@ -120,70 +290,112 @@ public class BookingServiceImpl implements BookingService {
                 .orElseThrow(() -> new NotFoundException(String.format("Item:%d is not exist.", itemId)));
     }
 
+    private List<Booking> getApprovedBookings(Set<Long> itemIds, List<BookingDto> bookingDtos) {
+        List<BookingDto> timed = bookingDtos.stream()
+                .filter(dto -> dto.getStart() != null && dto.getEnd() != null)
+                .collect(Collectors.toList());
+        if (itemIds.isEmpty() || timed.isEmpty()) {
+            return List.of();
+        }
+        LocalDateTime minStart = timed.stream().map(BookingDto::getStart).min(Comparator.naturalOrder()).get();
+        LocalDateTime maxEnd = timed.stream().map(BookingDto::getEnd).max(Comparator.naturalOrder()).get();
+
+        return bookingRepository.findAllByItemIdInAndStatusAndStartBeforeAndEndAfter(itemIds,
+                BookingStatus.APPROVED, maxEnd, minStart);
+    }
+
+    private Booking toBatchBooking(BookingDto bookingDto, User booker, Map<Long, Item> items,
+                                   Map<Long, List<Booking>> approvedByItems) {
+        if (bookingDto.getItemId() == null) {
+            throw new ValidationException("Item id is not provided.");
+        }
+        checkBookingTime(bookingDto);
+
+        Item item = items.get(bookingDto.getItemId());
+        if (item == null) {
+            throw new NotFoundException(String.format("Item:%d is not exist.", bookingDto.getItemId()));
+        }
+        if (item.getOwner().getId().equals(booker.getId())) {
+            throw new NotFoundException("Booker can not be an item owner.");
+        }
+        if (!item.getAvailable()) {
+            throw new ValidationException(String.format("Item:%d is unavailable.", item.getId()));
+        }
+        boolean overlaps = approvedByItems.getOrDefault(item.getId(), List.of()).stream()
+                .anyMatch(approved -> approved.getStart().isBefore(bookingDto.getEnd())
+                        && approved.getEnd().isAfter(bookingDto.getStart()));
+        if (overlaps) {
+            throw new ValidationException(String.format("Item:%d is already booked for this time.", item.getId()));
+        }
+
+        Booking booking = BookingMapper.toBooking(bookingDto);
+        booking.setItem(item);
+        booking.setBooker(booker);
+        return booking;
+    }
+
+    private void checkBookingTime(BookingDto bookingDto) {
+        if (bookingDto.getStart() == null || bookingDto.getEnd() == null) {
+            throw new ValidationException("Booking start and end must be provided.");
+        }
+        if (!bookingDto.getEnd().isAfter(bookingDto.getStart())) {
+            throw new ValidationException("Booking end must be after start.");
+        }
+        if (bookingDto.getStart().isBefore(LocalDateTime.now())) {
+            throw new ValidationException("Booking start can not be in the past.");
+        }
+    }
+
+    private List<Booking> withoutOverlaps(List<Booking> waiting, Map<Long, BookingDecisionOutcome> outcomes) {
+        if (waiting.isEmpty()) {
+            return waiting;
+        }
+        Set<Long> itemIds = waiting.stream()
+                .map(booking -> booking.getItem().getId())
+                .collect(Collectors.toSet());
+        LocalDateTime minStart = waiting.stream().map(Booking::getStart).min(Comparator.naturalOrder()).get();
+        LocalDateTime maxEnd = waiting.stream().map(Booking::getEnd).max(Comparator.naturalOrder()).get();
+        Map<Long, List<Booking>> approvedByItems = bookingRepository
+                .findAllByItemIdInAndStatusAndStartBeforeAndEndAfter(itemIds, BookingStatus.APPROVED, maxEnd, minStart)
+                .stream()
+                .collect(Collectors.groupingBy(booking -> booking.getItem().getId(),
+                        Collectors.toCollection(ArrayList::new)));
+
+        List<Booking> accepted = new ArrayList<>();
+        waiting.stream()
+                .sorted(Comparator.comparing(Booking::getStart).thenComparing(Booking::getId))
+                .forEach(booking -> {
+                    List<Booking> approved = approvedByItems
+                            .computeIfAbsent(booking.getItem().getId(), id -> new ArrayList<>());
+                    boolean overlaps = approved.stream()
+                            .anyMatch(other -> other.getStart().isBefore(booking.getEnd())
+                                    && other.getEnd().isAfter(booking.getStart()));
+                    if (overlaps) {
+                        outcomes.put(booking.getId(), BookingDecisionOutcome.OVERLAP);
+                    } else {
+                        approved.add(booking);
+                        accepted.add(booking);
+                    }
+                });
+        return accepted;
+    }
+
+    private void lockItem(Long itemId) {
+        itemRepository
+                .findByIdForUpdate(itemId)
+                .orElseThrow(() -> new NotFoundException(String.format("Item:%d is not exist.", itemId)));
+    }
+
+    private void checkNoApprovedOverlap(Long itemId, LocalDateTime start, LocalDateTime end) {
+        if (bookingRepository.existsApprovedOverlap(itemId, start, end)) {
+            throw new ValidationException(String.format("Item:%d is already booked for this time.", itemId));
+        }
+    }
+
     private Booking getBookingById(Long bookingId) {
         return bookingRepository
                 .findById(bookingId)
                 .orElseThrow(
                         () -> new NotFoundException(String.format("Booking:%d is not found.", bookingId)));
     }
-
-    private Predicate<Booking> getFilterByState(BookingState state) {
-        switch (state) {
-            case PAST:
-                return booking -> booking.getEnd().isBefore(LocalDateTime.now());
-            case CURRENT:
-                return booking -> booking.getStart().isBefore(LocalDateTime.now()) &&
-                        booking.getEnd().isAfter(LocalDateTime.now());
-            case FUTURE:
-                return booking -> booking.getStart().isAfter(LocalDateTime.now());
-            default:
-                throw new ValidationException("Provided wrong state of booking.");
-        }
-    }
-
-    private List<Booking> getBookingsByStatus(Long userId, BookingState state, Pageable page) {
-        List<Booking> bookings = new ArrayList<>();
-        User user = getUserById(userId);
-        switch (state) {
-            case ALL:
-                bookings = new ArrayList<>(bookingRepository.findAllByBooker(user, page));
-                break;
-            case WAITING:
-            case REJECTED:
-            case CANCELLED:
-                BookingStatus status = BookingStatus.valueOf(state.name());
-                bookings = new ArrayList<>(bookingRepository.findAllByBookerAndStatus(user, status, page));
-                break;
-            case PAST:
-            case CURRENT:
-            case FUTURE:
-                bookings = bookingRepository.findAllByBooker(user, page).stream()
-                        .filter(getFilterByState(state))
-                        .collect(Collectors.toList());
-        }
-        return bookings;
-    }
-
-    private List<Booking> getOwnerBookingsByStatus(Long ownerId, BookingState state, Pageable page) {
-        List<Booking> bookings = new ArrayList<>();
-        User owner = getUserById(ownerId);
-        switch (state) {
-            case ALL:
-                bookings = new ArrayList<>(bookingRepository.findAllByItemOwner(owner, page));
-                break;
-            case WAITING:
-            case REJECTED:
-            case CANCELLED:
-                BookingStatus status = BookingStatus.valueOf(state.name());
-                bookings = new ArrayList<>(bookingRepository.findAllByItemOwnerAndStatus(owner, status, page));
-                break;
-            case PAST:
-            case CURRENT:
-            case FUTURE:
-                bookings = bookingRepository.findAllByItemOwner(owner, page).stream()
-                        .filter(getFilterByState(state))
-                        .collect(Collectors.toList());
-        }
-        return bookings;
-    }
 }
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.comment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class CommentCountDto {
+    private Long itemId;
+    private Long count;
+}
@@ -2,8 +2,8 @@ package ru.practicum.shareit.comment.dto;
 
 import lombok.Builder;
 import lombok.Data;
-import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.item.dto.ItemShortDto;
+import ru.practicum.shareit.user.dto.UserShortDto;
 
 import java.time.LocalDateTime;
 
@@ -12,8 +12,8 @@ import java.time.LocalDateTime;
 public class CommentExtendedDto {
     private Long id;
     private String text;
-    private User user;
-    private Item item;
+    private UserShortDto user;
+    private ItemShortDto item;
     private String authorName;
     private LocalDateTime created;
 }
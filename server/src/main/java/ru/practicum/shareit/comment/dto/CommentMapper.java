@@ -2,6 +2,8 @@ package ru.practicum.shareit.comment.dto;
 
 import lombok.experimental.UtilityClass;
 import ru.practicum.shareit.comment.model.Comment;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.user.dto.UserMapper;
 
 import java.time.LocalDateTime;
 
@@ -11,13 +13,18 @@ public class CommentMapper {
         return CommentExtendedDto.builder()
                 .id(comment.getId())
                 .text(comment.getText())
-                .user(comment.getUser())
-                .item(comment.getItem())
+                .user(UserMapper.toUserShortDto(comment.getUser()))
+                .item(ItemMapper.toItemShortDto(comment.getItem()))
                 .authorName(comment.getAuthorName())
                 .created(comment.getCreated())
                 .build();
     }
 
+    public CommentShortDto toCommentShortDto(CommentShortView comment) {
+        return new CommentShortDto(comment.getId(), comment.getItemId(), comment.getText(),
+                comment.getAuthorName(), comment.getCreated());
+    }
+
     public Comment toComment(CommentDto commentDto) {
         return Comment.builder()
                 .id(commentDto.getId())
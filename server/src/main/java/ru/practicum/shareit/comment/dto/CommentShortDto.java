@@ -0,0 +1,18 @@
+package ru.practicum.shareit.comment.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class CommentShortDto {
+    private Long id;
+    @JsonIgnore
+    private Long itemId;
+    private String text;
+    private String authorName;
+    private LocalDateTime created;
+}
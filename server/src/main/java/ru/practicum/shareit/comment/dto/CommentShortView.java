@@ -0,0 +1,15 @@
+package ru.practicum.shareit.comment.dto;
+
+import java.time.LocalDateTime;
+
+public interface CommentShortView {
+    Long getId();
+
+    Long getItemId();
+
+    String getText();
+
+    String getAuthorName();
+
+    LocalDateTime getCreated();
+}
@@ -1,11 +1,33 @@
 package ru.practicum.shareit.comment.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.comment.dto.CommentCountDto;
+import ru.practicum.shareit.comment.dto.CommentShortDto;
+import ru.practicum.shareit.comment.dto.CommentShortView;
 import ru.practicum.shareit.comment.model.Comment;
-import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findAllByItem(Item item);
+    @Query("select new ru.practicum.shareit.comment.dto.CommentShortDto(c.id, c.item.id, c.text, c.authorName, c.created) " +
+            "from Comment c where c.item.id = :itemId " +
+            "order by c.created desc, c.id desc")
+    List<CommentShortDto> findAllByItemId(@Param("itemId") Long itemId, Pageable pageable);
+
+    @Query(value = "select c.id as id, c.item_id as itemId, c.comment as text, c.author_name as authorName, " +
+            "c.created as created " +
+            "from (select cm.id, cm.item_id, cm.comment, cm.author_name, cm.created, " +
+            "row_number() over (partition by cm.item_id order by cm.created desc, cm.id desc) as rn " +
+            "from Comments as cm where cm.item_id in (:itemIds)) as c " +
+            "where c.rn <= :limit " +
+            "order by c.item_id, c.created desc, c.id desc", nativeQuery = true)
+    List<CommentShortView> findLatestByItemIds(@Param("itemIds") Collection<Long> itemIds, @Param("limit") long limit);
+
+    @Query("select new ru.practicum.shareit.comment.dto.CommentCountDto(c.item.id, count(c)) " +
+            "from Comment c where c.item.id in :itemIds group by c.item.id")
+    List<CommentCountDto> countByItemIds(@Param("itemIds") Collection<Long> itemIds);
 }
@@ -0,0 +1,38 @@
+package ru.practicum.shareit.exception;
+
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.ConcurrencyFailureException;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+@Slf4j
+@UtilityClass
+public class ConflictRetry {
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long BACKOFF_MILLIS = 10;
+
+    public <T> T run(Supplier<T> action, String conflictMessage) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (ConcurrencyFailureException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    throw new ConflictException(conflictMessage);
+                }
+                log.debug("Concurrent update, attempt {} of {}: {}", attempt, MAX_ATTEMPTS, e.getMessage());
+                backOff(attempt);
+            }
+        }
+    }
+
+    private void backOff(int attempt) {
+        try {
+            Thread.sleep(BACKOFF_MILLIS * attempt + ThreadLocalRandom.current().nextLong(BACKOFF_MILLIS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Interrupted while waiting to retry a concurrent update.");
+        }
+    }
+}
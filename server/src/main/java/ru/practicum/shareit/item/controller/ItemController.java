@@ -2,13 +2,28 @@ package ru.practicum.shareit.item.controller;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.comment.dto.CommentExtendedDto;
+import ru.practicum.shareit.comment.dto.CommentShortDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemBulkUpdateDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemExtendedDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.dto.ItemSearchPageDto;
+import ru.practicum.shareit.item.model.AvailabilityGranularity;
+import ru.practicum.shareit.item.model.ItemImportFormat;
+import ru.practicum.shareit.item.service.ItemImportService;
 import ru.practicum.shareit.item.service.ItemService;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -17,7 +32,11 @@ import java.util.List;
 @Slf4j
 public class ItemController {
     private final ItemService itemService;
+    private final ItemImportService itemImportService;
     private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+    private static final String CSV_MEDIA_TYPE = "text/csv";
 
     @PostMapping
     public ItemExtendedDto saveItem(
@@ -28,6 +47,17 @@ public class ItemController {
         return tempItem;
     }
 
+    @PostMapping(value = "/import", consumes = {NDJSON_MEDIA_TYPE, CSV_MEDIA_TYPE})
+    public ItemImportResultDto importItems(
+            @RequestHeader(USER_ID_HEADER) Long ownerId,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            HttpServletRequest request) throws IOException {
+        boolean csv = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.valueOf(CSV_MEDIA_TYPE));
+        ItemImportFormat format = csv ? ItemImportFormat.CSV : ItemImportFormat.NDJSON;
+        log.info("User with id:{} started {} item import", ownerId, format);
+        return itemImportService.importItems(ownerId, request.getInputStream(), format);
+    }
+
     @GetMapping("/{itemId}")
     public ItemExtendedDto findItemById(
             @RequestHeader(USER_ID_HEADER) Long ownerId, @PathVariable Long itemId) {
@@ -35,12 +65,31 @@ public class ItemController {
         return itemService.findItemById(ownerId, itemId);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public ItemAvailabilityDto getItemAvailability(
+            @PathVariable Long itemId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "HOUR") AvailabilityGranularity granularity) {
+        log.info("User requested availability of item:{} from {} to {}", itemId, from, to);
+        return itemService.getItemAvailability(itemId, from, to, granularity);
+    }
+
     @GetMapping("/search")
     public List<ItemExtendedDto> findItemsByName(@RequestParam String text,
                                                  @RequestParam Integer from,
-                                                 @RequestParam Integer size) {
+                                                 @RequestParam Integer size,
+                                                 @RequestParam(required = false) String after,
+                                                 HttpServletResponse response) {
         log.info("User search item by name:{}", text);
-        return itemService.findItemsByName(text, from, size);
+        if (after == null) {
+            return itemService.findItemsByName(text, from, size);
+        }
+        ItemSearchPageDto page = itemService.findItemsByNameAfter(text, after, size);
+        if (page.getNextCursor() != null) {
+            response.setHeader(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return page.getItems();
     }
 
     @GetMapping
@@ -51,6 +100,14 @@ public class ItemController {
         return itemService.findItemsByOwner(ownerId, from, size);
     }
 
+    @PatchMapping("/bulk")
+    public List<ItemExtendedDto> updateItems(
+            @RequestHeader(USER_ID_HEADER) Long ownerId,
+            @RequestBody ItemBulkUpdateDto bulkUpdateDto) {
+        log.info("User with id:{} trying to update {} items", ownerId, bulkUpdateDto.getItems().size());
+        return itemService.updateItems(ownerId, bulkUpdateDto.getItems());
+    }
+
     @PatchMapping("/{itemId}")
     public ItemExtendedDto updateItem(
             @RequestHeader(USER_ID_HEADER) Long ownerId,
@@ -68,4 +125,13 @@ public class ItemController {
         log.info("Request to create comment.");
         return itemService.createComment(commentDto, itemId, userId);
     }
+
+    @GetMapping("/{itemId}/comments")
+    public List<CommentShortDto> findComments(
+            @PathVariable Long itemId,
+            @RequestParam Integer from,
+            @RequestParam Integer size) {
+        log.info("Request to get comments of item {}.", itemId);
+        return itemService.findComments(itemId, from, size);
+    }
 }
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import ru.practicum.shareit.item.model.AvailabilityGranularity;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class ItemAvailabilityDto {
+    private Long itemId;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private AvailabilityGranularity granularity;
+    private Integer slots;
+    // Base64 of BitSet.toByteArray(): bit i is set when slot i is busy.
+    private String busy;
+}
@@ -3,12 +3,12 @@ package ru.practicum.shareit.item.dto;
 import lombok.Builder;
 import lombok.Data;
 import ru.practicum.shareit.booking.dto.BookingItemDto;
-import ru.practicum.shareit.comment.model.Comment;
+import ru.practicum.shareit.comment.dto.CommentShortDto;
 
 import java.util.List;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 public class ItemExtendedDto {
     private Long id;
     private String name;
@@ -16,6 +16,7 @@ public class ItemExtendedDto {
     private Boolean available;
     private BookingItemDto nextBooking;
     private BookingItemDto lastBooking;
-    private List<Comment> comments;
+    private List<CommentShortDto> comments;
+    private Long commentsCount;
     private Long requestId;
 }
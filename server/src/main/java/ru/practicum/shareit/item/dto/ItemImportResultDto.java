@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class ItemImportResultDto {
+    private long processed;
+    private long imported;
+    private long failed;
+    private List<ItemImportErrorDto> errors;
+}
@@ -15,6 +15,13 @@ public class ItemMapper {
                 .build();
     }
 
+    public ItemShortDto toItemShortDto(Item item) {
+        return ItemShortDto.builder()
+                .id(item.getId())
+                .name(item.getName())
+                .build();
+    }
+
     public Item toItem(ItemDto itemDto) {
         return Item.builder()
                 .id(itemDto.getId())
@@ -23,13 +30,4 @@ public class ItemMapper {
                 .available(itemDto.getAvailable())
                 .build();
     }
-
-    public Item toUpdatedItem(ItemExtendedDto itemDto, ItemDto changes) {
-        return Item.builder()
-                .id(itemDto.getId())
-                .name(changes.getName() == null ? itemDto.getName() : changes.getName())
-                .description(changes.getDescription() == null ? itemDto.getDescription() : changes.getDescription())
-                .available(changes.getAvailable() == null ? itemDto.getAvailable() : changes.getAvailable())
-                .build();
-    }
 }
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class ItemSearchPageDto {
+    private List<ItemExtendedDto> items;
+    private String nextCursor;
+}
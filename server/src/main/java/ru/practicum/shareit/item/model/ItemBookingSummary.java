@@ -0,0 +1,45 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.booking.model.Booking;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@Entity
+@Table(name = "ITEM_BOOKING_SUMMARY")
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemBookingSummary {
+    @Id
+    private Long itemId;
+    private Long lastBookingId;
+    private Long lastBookerId;
+    private LocalDateTime lastStart;
+    private LocalDateTime lastEnd;
+    private Long nextBookingId;
+    private Long nextBookerId;
+    private LocalDateTime nextStart;
+    private LocalDateTime nextEnd;
+
+    public void setLast(Booking booking) {
+        lastBookingId = booking == null ? null : booking.getId();
+        lastBookerId = booking == null ? null : booking.getBooker().getId();
+        lastStart = booking == null ? null : booking.getStart();
+        lastEnd = booking == null ? null : booking.getEnd();
+    }
+
+    public void setNext(Booking booking) {
+        nextBookingId = booking == null ? null : booking.getId();
+        nextBookerId = booking == null ? null : booking.getBooker().getId();
+        nextStart = booking == null ? null : booking.getStart();
+        nextEnd = booking == null ? null : booking.getEnd();
+    }
+}
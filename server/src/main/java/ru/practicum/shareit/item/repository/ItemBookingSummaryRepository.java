@@ -0,0 +1,21 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ItemBookingSummaryRepository extends JpaRepository<ItemBookingSummary, Long> {
+    @Query("select s.itemId from ItemBookingSummary s where s.nextStart < :now order by s.itemId")
+    List<Long> findItemIdsToRoll(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Query("select distinct b.item.id from Booking b " +
+            "where b.status = ru.practicum.shareit.booking.model.BookingStatus.APPROVED " +
+            "and not exists (select s.itemId from ItemBookingSummary s where s.itemId = b.item.id) " +
+            "order by b.item.id")
+    List<Long> findItemIdsWithoutSummary(Pageable pageable);
+}
@@ -1,22 +1,79 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.item.dto.ItemSearchHit;
+import ru.practicum.shareit.item.dto.ItemVersionDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.model.Request;
-import ru.practicum.shareit.user.model.User;
 
+import javax.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface ItemRepository extends JpaRepository<Item, Long> {
+public interface ItemRepository extends JpaRepository<Item, Long>, ItemUpdateRepository {
     @Query(value = "select * " +
             "from Items as it " +
             "where (upper(it.name) like concat('%', upper(?1), '%') " +
             "or upper(it.description) like concat ('%', upper(?1), '%')) " +
-            "and it.available = true ", nativeQuery = true)
-    List<Item> findByNameContainingIgnoreCase(String nameSearch);
+            "and it.available = true " +
+            "order by it.id", nativeQuery = true)
+    List<Item> findByNameContainingIgnoreCase(String nameSearch, Pageable pageable);
 
-    List<Item> findAllByOwnerOrderByOwner(User owner);
+    @Query(value = "select * " +
+            "from Items as it " +
+            "where (upper(it.name) like concat('%', upper(?1), '%') " +
+            "or upper(it.description) like concat ('%', upper(?1), '%')) " +
+            "and it.available = true " +
+            "and it.id > ?2 " +
+            "order by it.id", nativeQuery = true)
+    List<Item> findByNameContainingIgnoreCaseAfter(String nameSearch, Long afterId, Pageable pageable);
+
+    @Query(value = "select it.id as id, ts_rank(it.search_vector, to_tsquery('simple', :query)) as rank " +
+            "from Items as it " +
+            "where it.search_vector @@ to_tsquery('simple', :query) " +
+            "and it.available = true " +
+            "order by rank desc, it.id", nativeQuery = true)
+    List<ItemSearchHit> searchAvailableByText(@Param("query") String query, Pageable pageable);
+
+    @Query(value = "select it.id as id, ts_rank(it.search_vector, to_tsquery('simple', :query)) as rank " +
+            "from Items as it " +
+            "where it.search_vector @@ to_tsquery('simple', :query) " +
+            "and it.available = true " +
+            "and (ts_rank(it.search_vector, to_tsquery('simple', :query)) < :rank " +
+            "or (ts_rank(it.search_vector, to_tsquery('simple', :query)) = :rank and it.id > :afterId)) " +
+            "order by rank desc, it.id", nativeQuery = true)
+    List<ItemSearchHit> searchAvailableByTextAfter(@Param("query") String query,
+                                                   @Param("rank") Float rank,
+                                                   @Param("afterId") Long afterId,
+                                                   Pageable pageable);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemVersionDto(i.id, i.version) from Item i")
+    List<ItemVersionDto> findAllVersions();
+
+    List<Item> findAllByOwnerId(Long ownerId, Pageable pageable);
+
+    boolean existsByIdAndOwnerId(Long id, Long ownerId);
+
+    @Query("select i.id from Item i where i.id in :ids and i.owner.id = :ownerId")
+    List<Long> findOwnedIds(@Param("ids") Collection<Long> ids, @Param("ownerId") Long ownerId);
 
     List<Item> findAllByRequest(Request request);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id = :itemId")
+    Optional<Item> findByIdForUpdate(@Param("itemId") Long itemId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id in :itemIds order by i.id")
+    List<Item> findAllByIdInForUpdate(@Param("itemIds") Collection<Long> itemIds);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id in " +
+            "(select b.item.id from Booking b where b.id in :bookingIds) order by i.id")
+    List<Item> findAllByBookingIdInForUpdate(@Param("bookingIds") Collection<Long> bookingIds);
 }
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.item.repository;
+
+import java.util.Collection;
+
+public interface ItemUpdateRepository {
+    int updateChanges(Long itemId, String name, String description, Boolean available);
+
+    int updateChanges(Collection<Long> itemIds, String name, String description, Boolean available);
+}
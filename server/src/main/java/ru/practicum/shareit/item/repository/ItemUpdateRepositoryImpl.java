@@ -0,0 +1,44 @@
+package ru.practicum.shareit.item.repository;
+
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Root;
+import java.util.Collection;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class ItemUpdateRepositoryImpl implements ItemUpdateRepository {
+    private final EntityManager entityManager;
+
+    @Override
+    public int updateChanges(Long itemId, String name, String description, Boolean available) {
+        return updateChanges(List.of(itemId), name, description, available);
+    }
+
+    @Override
+    public int updateChanges(Collection<Long> itemIds, String name, String description, Boolean available) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Item> update = builder.createCriteriaUpdate(Item.class);
+        Root<Item> item = update.from(Item.class);
+        if (name != null) {
+            update.set(item.<String>get("name"), name);
+        }
+        if (description != null) {
+            update.set(item.<String>get("description"), description);
+        }
+        if (available != null) {
+            update.set(item.<Boolean>get("available"), available);
+        }
+        update.set(item.<Long>get("version"), builder.sum(item.<Long>get("version"), 1L));
+        update.where(item.get("id").in(itemIds));
+
+        entityManager.flush();
+        int updated = entityManager.createQuery(update).executeUpdate();
+        entityManager.clear();
+        return updated;
+    }
+}
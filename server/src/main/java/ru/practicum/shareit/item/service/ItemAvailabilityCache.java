@@ -0,0 +1,80 @@
+package ru.practicum.shareit.item.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+@Component
+@RequiredArgsConstructor
+public class ItemAvailabilityCache {
+    private static final int MAX_ITEMS = 10_000;
+    private static final Set<BookingStatus> BUSY_STATUSES = EnumSet.of(BookingStatus.APPROVED, BookingStatus.WAITING);
+
+    private final BookingRepository bookingRepository;
+    private final Cache<Long, Map<Long, BusyInterval>> intervalsByItem = Caffeine.newBuilder()
+            .maximumSize(MAX_ITEMS)
+            .build();
+
+    public Collection<BusyInterval> getBusyIntervals(Long itemId) {
+        return intervalsByItem.get(itemId, this::load).values();
+    }
+
+    public void onBookingChanged(Booking booking) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(booking);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(booking);
+            }
+        });
+    }
+
+    public void evictAll(Collection<Long> itemIds) {
+        intervalsByItem.invalidateAll(itemIds);
+    }
+
+    private void apply(Booking booking) {
+        intervalsByItem.asMap().computeIfPresent(booking.getItem().getId(), (itemId, intervals) -> {
+            if (BUSY_STATUSES.contains(booking.getStatus())) {
+                intervals.put(booking.getId(), new BusyInterval(booking.getStart(), booking.getEnd()));
+            } else {
+                intervals.remove(booking.getId());
+            }
+            return intervals;
+        });
+    }
+
+    private Map<Long, BusyInterval> load(Long itemId) {
+        return bookingRepository
+                .findAllByItemIdAndStatusInAndEndAfter(itemId, BUSY_STATUSES, LocalDateTime.now()).stream()
+                .collect(Collectors.toMap(Booking::getId,
+                        booking -> new BusyInterval(booking.getStart(), booking.getEnd()),
+                        (first, second) -> first,
+                        ConcurrentHashMap::new));
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class BusyInterval {
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+    }
+}
@@ -0,0 +1,55 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.repository.ItemBookingSummaryRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.item.booking-summary.roll-enabled", havingValue = "true",
+        matchIfMissing = true)
+public class ItemBookingSummaryJob {
+    private final ItemBookingSummaryRepository summaryRepository;
+    private final ItemBookingSummaryService summaryService;
+    private final int chunkSize;
+    private final int maxChunks;
+
+    public ItemBookingSummaryJob(ItemBookingSummaryRepository summaryRepository,
+                                 ItemBookingSummaryService summaryService,
+                                 @Value("${shareit.item.booking-summary.chunk-size:500}") int chunkSize,
+                                 @Value("${shareit.item.booking-summary.max-chunks:100}") int maxChunks) {
+        this.summaryRepository = summaryRepository;
+        this.summaryService = summaryService;
+        this.chunkSize = chunkSize;
+        this.maxChunks = maxChunks;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.item.booking-summary.delay:PT1M}",
+            initialDelayString = "${shareit.item.booking-summary.delay:PT1M}")
+    public void rollSummaries() {
+        int rolled = 0;
+        int created = 0;
+        int chunks = 0;
+        List<Long> itemIds;
+        do {
+            itemIds = summaryRepository.findItemIdsToRoll(LocalDateTime.now(), PageRequest.of(0, chunkSize));
+            rolled += summaryService.refresh(itemIds);
+            chunks++;
+        } while (itemIds.size() == chunkSize && chunks < maxChunks);
+        do {
+            itemIds = summaryRepository.findItemIdsWithoutSummary(PageRequest.of(0, chunkSize));
+            created += summaryService.refresh(itemIds);
+            chunks++;
+        } while (itemIds.size() == chunkSize && chunks < maxChunks);
+        if (rolled > 0 || created > 0) {
+            log.info("Rolled {} and created {} item booking summaries in {} chunks.", rolled, created, chunks);
+        }
+    }
+}
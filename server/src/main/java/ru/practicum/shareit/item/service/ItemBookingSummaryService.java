@@ -0,0 +1,114 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+import ru.practicum.shareit.item.repository.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ItemBookingSummaryService {
+    private final ItemBookingSummaryRepository summaryRepository;
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+
+    public Map<Long, ItemBookingSummary> getSummaries(Collection<Long> itemIds) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, ItemBookingSummary> summaries = findFresh(itemIds, now);
+        List<Long> outdated = itemIds.stream()
+                .filter(itemId -> !summaries.containsKey(itemId))
+                .collect(Collectors.toList());
+        if (!outdated.isEmpty()) {
+            summaries.putAll(loadAll(outdated, now));
+        }
+        return summaries;
+    }
+
+    @Transactional
+    public void onBookingApproved(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        LocalDateTime now = LocalDateTime.now();
+        ItemBookingSummary summary = summaryRepository.findById(itemId).orElse(null);
+        if (summary == null || isStale(summary, now)) {
+            summaryRepository.save(load(itemId, now));
+            return;
+        }
+
+        if (booking.getStart().isBefore(now)) {
+            if (summary.getLastStart() == null || booking.getStart().isAfter(summary.getLastStart())) {
+                summary.setLast(booking);
+            }
+        } else if (summary.getNextStart() == null || booking.getStart().isBefore(summary.getNextStart())) {
+            summary.setNext(booking);
+        }
+        summaryRepository.save(summary);
+    }
+
+    @Transactional
+    public int refresh(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return 0;
+        }
+        itemRepository.findAllByIdInForUpdate(itemIds);
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, ItemBookingSummary> summaries = findFresh(itemIds, now);
+        List<Long> outdated = itemIds.stream()
+                .filter(itemId -> !summaries.containsKey(itemId))
+                .collect(Collectors.toList());
+        if (!outdated.isEmpty()) {
+            summaryRepository.saveAll(loadAll(outdated, now).values());
+        }
+        return itemIds.size();
+    }
+
+    private Map<Long, ItemBookingSummary> findFresh(Collection<Long> itemIds, LocalDateTime now) {
+        return summaryRepository.findAllById(itemIds).stream()
+                .filter(summary -> !isStale(summary, now))
+                .collect(Collectors.toMap(ItemBookingSummary::getItemId, Function.identity()));
+    }
+
+    private ItemBookingSummary load(Long itemId, LocalDateTime now) {
+        ItemBookingSummary summary = ItemBookingSummary.builder()
+                .itemId(itemId)
+                .build();
+        summary.setLast(bookingRepository.findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc(itemId,
+                BookingStatus.APPROVED, now).orElse(null));
+        summary.setNext(bookingRepository.findFirstByItemIdAndStatusAndStartGreaterThanEqualOrderByStartAsc(itemId,
+                BookingStatus.APPROVED, now).orElse(null));
+        return summary;
+    }
+
+    private Map<Long, ItemBookingSummary> loadAll(Collection<Long> itemIds, LocalDateTime now) {
+        Map<Long, ItemBookingSummary> summaries = new HashMap<>();
+        for (Long itemId : itemIds) {
+            summaries.put(itemId, ItemBookingSummary.builder()
+                    .itemId(itemId)
+                    .build());
+        }
+        for (Booking booking : bookingRepository.findLastApprovedByItemIds(itemIds, now)) {
+            summaries.get(booking.getItem().getId()).setLast(booking);
+        }
+        for (Booking booking : bookingRepository.findNextApprovedByItemIds(itemIds, now)) {
+            summaries.get(booking.getItem().getId()).setNext(booking);
+        }
+        return summaries;
+    }
+
+    private boolean isStale(ItemBookingSummary summary, LocalDateTime now) {
+        return summary.getNextStart() != null && summary.getNextStart().isBefore(now);
+    }
+}
@@ -0,0 +1,282 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportErrorDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.model.ItemImportFormat;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class ItemImportService {
+    private static final int MAX_TEXT_LENGTH = 255;
+    private static final String INSERT_SQL = "INSERT INTO ITEMS (NAME, DESCRIPTION, AVAILABLE, OWNER_ID, REQUEST_ID) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ItemSearchIndex searchIndex;
+    private final ItemSearchCache searchCache;
+    private final int chunkSize;
+    private final int maxErrors;
+
+    public ItemImportService(JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             ObjectMapper objectMapper,
+                             ItemSearchIndex searchIndex,
+                             ItemSearchCache searchCache,
+                             @Value("${shareit.item.import.chunk-size:500}") int chunkSize,
+                             @Value("${shareit.item.import.max-errors:1000}") int maxErrors) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.searchIndex = searchIndex;
+        this.searchCache = searchCache;
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+    }
+
+    public ItemImportResultDto importItems(Long userId, InputStream body, ItemImportFormat format) {
+        if (findExisting("SELECT ID FROM USERS WHERE ID IN (:ids)", List.of(userId)).isEmpty()) {
+            throw new NotFoundException("User does not exist");
+        }
+        ImportProgress progress = new ImportProgress();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String[] header = format == ItemImportFormat.CSV ? readHeader(reader, progress) : null;
+            List<ImportRow> chunk = new ArrayList<>(chunkSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                long lineNumber = ++progress.lines;
+                if (line.isBlank()) {
+                    continue;
+                }
+                progress.processed++;
+                try {
+                    ItemDto itemDto = header == null ? parseJson(line) : parseCsv(header, line);
+                    validate(itemDto);
+                    if (itemDto.getOwner() != null && !itemDto.getOwner().equals(userId)) {
+                        throw new ValidationException(
+                                String.format("User:%d can not import items for User:%d.", userId, itemDto.getOwner()));
+                    }
+                    itemDto.setOwner(userId);
+                    chunk.add(new ImportRow(lineNumber, itemDto));
+                } catch (ValidationException e) {
+                    progress.fail(lineNumber, e.getMessage());
+                }
+                if (chunk.size() == chunkSize) {
+                    insertChunk(chunk, progress);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                insertChunk(chunk, progress);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (progress.imported > 0) {
+                searchCache.onItemChanged();
+                searchIndex.refresh();
+            }
+        }
+
+        log.info("Item import by user {} finished: {} rows processed, {} imported, {} failed.",
+                userId, progress.processed, progress.imported, progress.failed);
+        return ItemImportResultDto.builder()
+                .processed(progress.processed)
+                .imported(progress.imported)
+                .failed(progress.failed)
+                .errors(progress.errors)
+                .build();
+    }
+
+    private void insertChunk(List<ImportRow> chunk, ImportProgress progress) {
+        Map<Long, String> rejected;
+        try {
+            rejected = transactionTemplate.execute(status -> {
+                Set<Long> requests = findExisting("SELECT ID FROM REQUESTS WHERE ID IN (:ids)", chunk.stream()
+                        .map(row -> row.item.getRequestId())
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet()));
+
+                Map<Long, String> missing = new LinkedHashMap<>();
+                List<Object[]> batch = new ArrayList<>(chunk.size());
+                for (ImportRow row : chunk) {
+                    ItemDto item = row.item;
+                    if (item.getRequestId() != null && !requests.contains(item.getRequestId())) {
+                        missing.put(row.line, String.format("Request:%d does not exist.", item.getRequestId()));
+                    } else {
+                        batch.add(new Object[]{item.getName(), item.getDescription(), item.getAvailable(),
+                                item.getOwner(), item.getRequestId()});
+                    }
+                }
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+                return missing;
+            });
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("Item import chunk of {} rows failed.", chunk.size(), e);
+            String message = String.format("Row was not imported: %s", e.getMostSpecificCause().getMessage());
+            chunk.forEach(row -> progress.fail(row.line, message));
+            return;
+        }
+        progress.imported += chunk.size() - rejected.size();
+        rejected.forEach(progress::fail);
+        log.info("Item import progress: {} rows processed, {} imported, {} failed.",
+                progress.processed, progress.imported, progress.failed);
+    }
+
+    private Set<Long> findExisting(String sql, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(namedJdbcTemplate.queryForList(sql, Map.of("ids", ids), Long.class));
+    }
+
+    private String[] readHeader(BufferedReader reader, ImportProgress progress) throws IOException {
+        String line = reader.readLine();
+        progress.lines++;
+        if (line == null) {
+            throw new ValidationException("CSV import must start with a header line.");
+        }
+        List<String> columns = splitCsv(line);
+        String[] header = new String[columns.size()];
+        for (int i = 0; i < header.length; i++) {
+            header[i] = columns.get(i).trim();
+        }
+        return header;
+    }
+
+    private ItemDto parseJson(String line) {
+        try {
+            return objectMapper.readValue(line, ItemDto.class);
+        } catch (JsonProcessingException e) {
+            throw new ValidationException("Malformed JSON row.");
+        }
+    }
+
+    private ItemDto parseCsv(String[] header, String line) {
+        List<String> values = splitCsv(line);
+        if (values.size() != header.length) {
+            throw new ValidationException(String.format("Expected %d columns but got %d.", header.length,
+                    values.size()));
+        }
+        Map<String, String> row = new HashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            row.put(header[i], values.get(i).isEmpty() ? null : values.get(i));
+        }
+        try {
+            return ItemDto.builder()
+                    .name(row.get("name"))
+                    .description(row.get("description"))
+                    .available(row.get("available") == null ? null : Boolean.valueOf(row.get("available")))
+                    .owner(row.get("owner") == null ? null : Long.valueOf(row.get("owner")))
+                    .requestId(row.get("requestId") == null ? null : Long.valueOf(row.get("requestId")))
+                    .build();
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Owner and request id must be numbers.");
+        }
+    }
+
+    private List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new ValidationException("Unterminated quoted value.");
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    private void validate(ItemDto itemDto) {
+        if (itemDto.getName() == null || itemDto.getName().isBlank()) {
+            throw new ValidationException("Name can not be empty.");
+        }
+        if (itemDto.getDescription() == null || itemDto.getDescription().isBlank()) {
+            throw new ValidationException("Description can not be empty.");
+        }
+        if (itemDto.getName().length() > MAX_TEXT_LENGTH || itemDto.getDescription().length() > MAX_TEXT_LENGTH) {
+            throw new ValidationException(String.format("Name and description must be at most %d characters.",
+                    MAX_TEXT_LENGTH));
+        }
+        if (itemDto.getAvailable() == null) {
+            throw new ValidationException("Available must be provided.");
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class ImportRow {
+        private final long line;
+        private final ItemDto item;
+    }
+
+    private class ImportProgress {
+        private long lines;
+        private long processed;
+        private long imported;
+        private long failed;
+        private final List<ItemImportErrorDto> errors = new ArrayList<>();
+
+        private void fail(long line, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(ItemImportErrorDto.builder()
+                        .line(line)
+                        .message(message)
+                        .build());
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package ru.practicum.shareit.item.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+@Component
+public class ItemSearchCache {
+    private final AtomicLong generation = new AtomicLong();
+    private final Cache<SearchKey, long[]> results;
+
+    public ItemSearchCache(MeterRegistry meterRegistry,
+                           @Value("${shareit.item.search.cache.max-size:10000}") long maxSize,
+                           @Value("${shareit.item.search.cache.ttl:PT10M}") Duration ttl) {
+        this.results = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, results, "item.search");
+    }
+
+    public long[] get(String text, Pageable page, Supplier<long[]> loader) {
+        SearchKey key = new SearchKey(generation.get(), text, page.getOffset(), page.getPageSize());
+        return results.get(key, ignored -> loader.get());
+    }
+
+    public void onItemChanged() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            generation.incrementAndGet();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                generation.incrementAndGet();
+            }
+        });
+    }
+
+    @Data
+    private static class SearchKey {
+        private final long generation;
+        private final String text;
+        private final long offset;
+        private final int size;
+    }
+}
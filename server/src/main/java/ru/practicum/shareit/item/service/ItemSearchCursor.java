@@ -0,0 +1,37 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+@Getter
+@RequiredArgsConstructor
+public class ItemSearchCursor {
+    private static final String SEPARATOR = "|";
+
+    private final Float rank;
+    private final Long id;
+
+    public static ItemSearchCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+            String rank = value.substring(0, separator);
+            return new ItemSearchCursor(rank.isEmpty() ? null : Float.valueOf(rank),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new ValidationException("Provided wrong item search cursor.");
+        }
+    }
+
+    public String encode() {
+        String value = (rank == null ? "" : rank.toString()) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
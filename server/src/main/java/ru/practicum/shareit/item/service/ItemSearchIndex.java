@@ -0,0 +1,552 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.ItemSearchHit;
+import ru.practicum.shareit.item.dto.ItemVersionDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSearchMode;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+public class ItemSearchIndex {
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int MAGIC = 0x53484958;
+    private static final int FORMAT = 1;
+    private static final int CATCH_UP_CHUNK = 500;
+    private static final int[] NO_TERMS = new int[0];
+    private static final Comparator<ItemSearchHit> WORST_FIRST = Comparator.comparing(ItemSearchHit::getRank)
+            .thenComparing(ItemSearchHit::getId, Comparator.reverseOrder());
+
+    private final ItemRepository itemRepository;
+    private final boolean enabled;
+    private final Path snapshotPath;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object flushLock = new Object();
+
+    private final TreeMap<String, Integer> termIds = new TreeMap<>();
+    private final List<PostingList> postings = new ArrayList<>();
+    private final List<String> terms = new ArrayList<>();
+    private final Map<Long, Integer> docsByItem = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private final BitSet available = new BitSet();
+    private long[] itemIds = new long[1024];
+    private long[] versions = new long[1024];
+    private int[] lengths = new int[1024];
+    private int[][] docTerms = new int[1024][];
+    private int docCount;
+    private int liveCount;
+    private long totalLength;
+    private boolean dirty;
+    private volatile boolean ready;
+
+    public ItemSearchIndex(ItemRepository itemRepository,
+                           @Value("${shareit.item.search.mode:FULL_TEXT}") ItemSearchMode mode,
+                           @Value("${shareit.item.search.index-path:}") String snapshotPath) {
+        this.itemRepository = itemRepository;
+        this.enabled = mode == ItemSearchMode.INDEX;
+        this.snapshotPath = snapshotPath.isBlank() ? null : Paths.get(snapshotPath);
+    }
+
+    public static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        return Arrays.stream(text.toLowerCase().split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        if (snapshotPath != null && Files.exists(snapshotPath)) {
+            try {
+                readSnapshot();
+            } catch (IOException | RuntimeException e) {
+                log.warn("Item search snapshot {} can not be read, rebuilding: {}", snapshotPath, e.getMessage());
+                clear();
+            }
+        }
+        catchUp();
+        ready = true;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.item.search.index-refresh-delay:PT1M}",
+            initialDelayString = "${shareit.item.search.index-refresh-delay:PT1M}")
+    public void refresh() {
+        if (!enabled || !ready) {
+            return;
+        }
+        catchUp();
+    }
+
+    public List<ItemSearchHit> search(String text) {
+        return search(text, null, null, Integer.MAX_VALUE);
+    }
+
+    public List<ItemSearchHit> search(String text, Float afterRank, Long afterId, int limit) {
+        List<String> tokens = tokenize(text);
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            float avgLength = liveCount == 0 ? 1 : (float) totalLength / liveCount;
+            Map<Integer, Float> scores = null;
+            for (String token : tokens) {
+                Map<Integer, Float> tokenScores = new HashMap<>();
+                for (Integer termId : termIds.subMap(token, token + Character.MAX_VALUE).values()) {
+                    PostingList list = postings.get(termId);
+                    float idf = (float) Math.log(1 + (liveCount - list.size + 0.5) / (list.size + 0.5));
+                    for (int i = 0; i < list.size; i++) {
+                        int doc = list.docs[i];
+                        Float previous = scores == null ? Float.valueOf(0) : scores.get(doc);
+                        if (previous == null || !available.get(doc)) {
+                            continue;
+                        }
+                        int freq = list.freqs[i];
+                        float score = idf * freq * (K1 + 1) / (freq + K1 * (1 - B + B * lengths[doc] / avgLength));
+                        Float current = tokenScores.get(doc);
+                        tokenScores.put(doc, (current == null ? previous : current) + score);
+                    }
+                }
+                scores = tokenScores;
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            PriorityQueue<IndexHit> top = new PriorityQueue<>(Math.min(limit, scores.size()), WORST_FIRST);
+            for (Map.Entry<Integer, Float> entry : scores.entrySet()) {
+                IndexHit hit = new IndexHit(itemIds[entry.getKey()], entry.getValue());
+                if (afterRank != null && (hit.rank > afterRank || hit.rank.equals(afterRank) && hit.id <= afterId)) {
+                    continue;
+                }
+                if (top.size() < limit) {
+                    top.add(hit);
+                } else if (WORST_FIRST.compare(hit, top.peek()) > 0) {
+                    top.poll();
+                    top.add(hit);
+                }
+            }
+            List<ItemSearchHit> hits = new ArrayList<>(top);
+            hits.sort(WORST_FIRST.reversed());
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void onItemChanged(Item item) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            index(item);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                index(item);
+            }
+        });
+    }
+
+    public void onItemsChanged(Collection<Item> items) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            items.forEach(this::index);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                items.forEach(item -> index(item));
+            }
+        });
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${shareit.item.search.index-flush-delay:PT5M}",
+            initialDelayString = "${shareit.item.search.index-flush-delay:PT5M}")
+    public void flush() {
+        if (!enabled || !ready || snapshotPath == null) {
+            return;
+        }
+        synchronized (flushLock) {
+            Snapshot snapshot;
+            lock.readLock().lock();
+            try {
+                if (!dirty) {
+                    return;
+                }
+                snapshot = new Snapshot();
+                dirty = false;
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            try {
+                writeSnapshot(snapshot);
+            } catch (IOException e) {
+                log.warn("Item search snapshot {} can not be written: {}", snapshotPath, e.getMessage());
+                lock.writeLock().lock();
+                try {
+                    dirty = true;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    private void catchUp() {
+        Map<Long, Long> current = itemRepository.findAllVersions().stream()
+                .collect(Collectors.toMap(ItemVersionDto::getId, ItemVersionDto::getVersion));
+        List<Long> stale = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            for (Long itemId : new ArrayList<>(docsByItem.keySet())) {
+                if (!current.containsKey(itemId)) {
+                    remove(itemId);
+                }
+            }
+            current.forEach((itemId, version) -> {
+                Integer doc = docsByItem.get(itemId);
+                if (doc == null || versions[doc] != version) {
+                    stale.add(itemId);
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        for (int from = 0; from < stale.size(); from += CATCH_UP_CHUNK) {
+            for (Item item : itemRepository.findAllById(stale.subList(from, Math.min(stale.size(),
+                    from + CATCH_UP_CHUNK)))) {
+                index(item);
+            }
+        }
+        log.info("Item search index holds {} items, {} reindexed.", liveCount, stale.size());
+    }
+
+    private void index(Item item) {
+        index(item.getId(), item.getVersion(), Boolean.TRUE.equals(item.getAvailable()),
+                item.getName() + " " + item.getDescription());
+    }
+
+    private void index(Long itemId, long version, boolean isAvailable, String text) {
+        lock.writeLock().lock();
+        try {
+            Integer doc = docsByItem.get(itemId);
+            if (doc == null) {
+                doc = docCount++;
+                ensureCapacity(docCount);
+                docsByItem.put(itemId, doc);
+                itemIds[doc] = itemId;
+            } else if (versions[doc] > version) {
+                return;
+            } else {
+                removeTerms(doc);
+            }
+
+            Map<String, Integer> freqs = new LinkedHashMap<>();
+            List<String> tokens = tokenize(text);
+            tokens.forEach(token -> freqs.merge(token, 1, Integer::sum));
+            int[] docTermIds = new int[freqs.size()];
+            int i = 0;
+            for (Map.Entry<String, Integer> entry : freqs.entrySet()) {
+                int termId = termId(entry.getKey());
+                postings.get(termId).put(doc, entry.getValue());
+                docTermIds[i++] = termId;
+            }
+            docTerms[doc] = docTermIds;
+            lengths[doc] = tokens.size();
+            totalLength += tokens.size();
+            versions[doc] = version;
+            available.set(doc, isAvailable);
+            if (!live.get(doc)) {
+                live.set(doc);
+                liveCount++;
+            }
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(Long itemId) {
+        Integer doc = docsByItem.remove(itemId);
+        if (doc == null) {
+            return;
+        }
+        removeTerms(doc);
+        live.clear(doc);
+        available.clear(doc);
+        liveCount--;
+        dirty = true;
+    }
+
+    private void removeTerms(int doc) {
+        for (int termId : docTerms[doc]) {
+            postings.get(termId).remove(doc);
+        }
+        totalLength -= lengths[doc];
+        docTerms[doc] = NO_TERMS;
+        lengths[doc] = 0;
+    }
+
+    private int termId(String term) {
+        Integer termId = termIds.get(term);
+        if (termId == null) {
+            termId = postings.size();
+            termIds.put(term, termId);
+            terms.add(term);
+            postings.add(new PostingList());
+        }
+        return termId;
+    }
+
+    private void ensureCapacity(int size) {
+        if (size <= itemIds.length) {
+            return;
+        }
+        int capacity = Math.max(size, itemIds.length * 2);
+        itemIds = Arrays.copyOf(itemIds, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        docTerms = Arrays.copyOf(docTerms, capacity);
+    }
+
+    private void clear() {
+        termIds.clear();
+        postings.clear();
+        terms.clear();
+        docsByItem.clear();
+        live.clear();
+        available.clear();
+        docCount = 0;
+        liveCount = 0;
+        totalLength = 0;
+    }
+
+    private void writeSnapshot(Snapshot snapshot) throws IOException {
+        byte[][] termBytes = new byte[snapshot.terms.size()][];
+        long size = 16 + 32L * snapshot.docCount;
+        for (int termId = 0; termId < termBytes.length; termId++) {
+            termBytes[termId] = snapshot.terms.get(termId).getBytes(StandardCharsets.UTF_8);
+            size += 12 + termBytes[termId].length + 8L * snapshot.postings[termId].size;
+        }
+
+        Path temp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC).putInt(FORMAT).putInt(snapshot.docCount).putInt(termBytes.length);
+            for (int doc = 0; doc < snapshot.docCount; doc++) {
+                buffer.putLong(snapshot.itemIds[doc])
+                        .putLong(snapshot.versions[doc])
+                        .putInt((snapshot.live.get(doc) ? 1 : 0) | (snapshot.available.get(doc) ? 2 : 0))
+                        .putInt(snapshot.lengths[doc])
+                        .putInt(snapshot.termCounts[doc])
+                        .putInt(0);
+            }
+            for (int termId = 0; termId < termBytes.length; termId++) {
+                PostingList list = snapshot.postings[termId];
+                buffer.putInt(termBytes[termId].length).put(termBytes[termId]).putInt(list.size).putInt(0);
+                for (int i = 0; i < list.size; i++) {
+                    buffer.putInt(list.docs[i]);
+                }
+                for (int i = 0; i < list.size; i++) {
+                    buffer.putInt(list.freqs[i]);
+                }
+            }
+            buffer.force();
+        }
+        Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void readSnapshot() throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT) {
+                throw new IOException("unknown snapshot format");
+            }
+            int docs = buffer.getInt();
+            int termCount = buffer.getInt();
+            lock.writeLock().lock();
+            try {
+                ensureCapacity(docs);
+                for (int doc = 0; doc < docs; doc++) {
+                    itemIds[doc] = buffer.getLong();
+                    versions[doc] = buffer.getLong();
+                    int flags = buffer.getInt();
+                    lengths[doc] = buffer.getInt();
+                    docTerms[doc] = new int[buffer.getInt()];
+                    buffer.getInt();
+                    if ((flags & 1) != 0) {
+                        live.set(doc);
+                        available.set(doc, (flags & 2) != 0);
+                        docsByItem.put(itemIds[doc], doc);
+                        liveCount++;
+                        totalLength += lengths[doc];
+                    }
+                }
+                docCount = docs;
+
+                int[] filled = new int[docs];
+                for (int termId = 0; termId < termCount; termId++) {
+                    byte[] bytes = new byte[buffer.getInt()];
+                    buffer.get(bytes);
+                    PostingList list = new PostingList(buffer.getInt());
+                    buffer.getInt();
+                    for (int i = 0; i < list.size; i++) {
+                        int doc = buffer.getInt();
+                        list.docs[i] = doc;
+                        docTerms[doc][filled[doc]++] = termId;
+                    }
+                    for (int i = 0; i < list.size; i++) {
+                        list.freqs[i] = buffer.getInt();
+                    }
+                    String term = new String(bytes, StandardCharsets.UTF_8);
+                    termIds.put(term, termId);
+                    terms.add(term);
+                    postings.add(list);
+                }
+                for (int doc = 0; doc < docs; doc++) {
+                    if (!live.get(doc)) {
+                        docTerms[doc] = NO_TERMS;
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // Taken under the read lock, so that the snapshot file itself is written without holding it.
+    private class Snapshot {
+        private final int docCount = ItemSearchIndex.this.docCount;
+        private final long[] itemIds = Arrays.copyOf(ItemSearchIndex.this.itemIds, docCount);
+        private final long[] versions = Arrays.copyOf(ItemSearchIndex.this.versions, docCount);
+        private final int[] lengths = Arrays.copyOf(ItemSearchIndex.this.lengths, docCount);
+        private final int[] termCounts = new int[docCount];
+        private final BitSet live = (BitSet) ItemSearchIndex.this.live.clone();
+        private final BitSet available = (BitSet) ItemSearchIndex.this.available.clone();
+        private final List<String> terms = new ArrayList<>(ItemSearchIndex.this.terms);
+        private final PostingList[] postings = new PostingList[terms.size()];
+
+        Snapshot() {
+            for (int doc = 0; doc < docCount; doc++) {
+                termCounts[doc] = docTerms[doc].length;
+            }
+            for (int termId = 0; termId < postings.length; termId++) {
+                postings[termId] = ItemSearchIndex.this.postings.get(termId).copy();
+            }
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class IndexHit implements ItemSearchHit {
+        private final Long id;
+        private final Float rank;
+    }
+
+    private static class PostingList {
+        private int[] docs;
+        private int[] freqs;
+        private int size;
+
+        PostingList() {
+            this.docs = new int[4];
+            this.freqs = new int[4];
+        }
+
+        PostingList(int size) {
+            this.docs = new int[Math.max(size, 4)];
+            this.freqs = new int[Math.max(size, 4)];
+            this.size = size;
+        }
+
+        PostingList copy() {
+            PostingList copy = new PostingList(size);
+            System.arraycopy(docs, 0, copy.docs, 0, size);
+            System.arraycopy(freqs, 0, copy.freqs, 0, size);
+            return copy;
+        }
+
+        void put(int doc, int freq) {
+            int position = Arrays.binarySearch(docs, 0, size, doc);
+            if (position >= 0) {
+                freqs[position] = freq;
+                return;
+            }
+            position = -position - 1;
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            System.arraycopy(docs, position, docs, position + 1, size - position);
+            System.arraycopy(freqs, position, freqs, position + 1, size - position);
+            docs[position] = doc;
+            freqs[position] = freq;
+            size++;
+        }
+
+        void remove(int doc) {
+            int position = Arrays.binarySearch(docs, 0, size, doc);
+            if (position < 0) {
+                return;
+            }
+            System.arraycopy(docs, position + 1, docs, position, size - position - 1);
+            System.arraycopy(freqs, position + 1, freqs, position, size - position - 1);
+            size--;
+        }
+    }
+}
@@ -2,9 +2,15 @@ package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.comment.dto.CommentExtendedDto;
+import ru.practicum.shareit.comment.dto.CommentShortDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemChangeDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemExtendedDto;
+import ru.practicum.shareit.item.dto.ItemSearchPageDto;
+import ru.practicum.shareit.item.model.AvailabilityGranularity;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
@@ -15,10 +21,19 @@ public interface ItemService {
 
     List<ItemExtendedDto> findItemsByName(String name, Integer from, Integer size);
 
+    ItemSearchPageDto findItemsByNameAfter(String name, String after, Integer size);
+
     List<ItemExtendedDto> findItemsByOwner(Long userId, Integer from, Integer size);
 
     ItemExtendedDto updateItem(Long ownerId, Long itemId, ItemDto changes);
 
+    List<ItemExtendedDto> updateItems(Long ownerId, List<ItemChangeDto> changes);
+
     CommentExtendedDto createComment(CommentDto commentDto, Long itemId, Long userId);
 
+    List<CommentShortDto> findComments(Long itemId, Integer from, Integer size);
+
+    ItemAvailabilityDto getItemAvailability(Long itemId, LocalDateTime from, LocalDateTime to,
+                                            AvailabilityGranularity granularity);
+
 }
@@ -1,46 +1,91 @@
 package ru.practicum.shareit.item.service;
 
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.shareit.booking.dto.BookingItemDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
-import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.booking.service.Pagination;
+import ru.practicum.shareit.comment.dto.CommentCountDto;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.comment.dto.CommentExtendedDto;
 import ru.practicum.shareit.comment.dto.CommentMapper;
+import ru.practicum.shareit.comment.dto.CommentShortDto;
 import ru.practicum.shareit.comment.model.Comment;
 import ru.practicum.shareit.comment.repository.CommentRepository;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemChangeDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemExtendedDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemSearchHit;
+import ru.practicum.shareit.item.dto.ItemSearchPageDto;
+import ru.practicum.shareit.item.model.AvailabilityGranularity;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+import ru.practicum.shareit.item.model.ItemSearchMode;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.request.repository.RequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional(readOnly = true)
-@RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
+    private static final int MAX_AVAILABILITY_SLOTS = 2_000;
+
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final CommentRepository commentRepository;
     private final BookingRepository bookingRepository;
     private final RequestRepository requestRepository;
+    private final ItemAvailabilityCache availabilityCache;
+    private final ItemBookingSummaryService bookingSummaryService;
+    private final ItemViewCache itemViewCache;
+    private final ItemSearchCache searchCache;
+
+    private final ItemSearchIndex searchIndex;
+    private final ItemSearchMode searchMode;
+    private final int commentsPerItem;
+
+    public ItemServiceImpl(ItemRepository itemRepository,
+                           UserRepository userRepository,
+                           CommentRepository commentRepository,
+                           BookingRepository bookingRepository,
+                           RequestRepository requestRepository,
+                           ItemAvailabilityCache availabilityCache,
+                           ItemBookingSummaryService bookingSummaryService,
+                           ItemViewCache itemViewCache,
+                           ItemSearchCache searchCache,
+                           ItemSearchIndex searchIndex,
+                           @Value("${shareit.item.search.mode:FULL_TEXT}") ItemSearchMode searchMode,
+                           @Value("${shareit.item.comments.per-item:10}") int commentsPerItem) {
+        this.itemRepository = itemRepository;
+        this.userRepository = userRepository;
+        this.commentRepository = commentRepository;
+        this.bookingRepository = bookingRepository;
+        this.requestRepository = requestRepository;
+        this.availabilityCache = availabilityCache;
+        this.bookingSummaryService = bookingSummaryService;
+        this.itemViewCache = itemViewCache;
+        this.searchCache = searchCache;
+        this.searchIndex = searchIndex;
+        this.searchMode = searchMode;
+        this.commentsPerItem = commentsPerItem;
+    }
 
     @Transactional
     @Override
@@ -53,25 +98,22 @@ public class ItemServiceImpl implements ItemService {
         savedItem = addRequestItem(itemDto.getRequestId(), savedItem);
         savedItem.setOwner(getUserById(ownerId));
 
-        return ItemMapper.toItemDto(itemRepository.save(savedItem));
+        savedItem = itemRepository.save(savedItem);
+        searchIndex.onItemChanged(savedItem);
+        searchCache.onItemChanged();
+        itemViewCache.evict(savedItem.getId());
+        return ItemMapper.toItemDto(savedItem);
     }
 
     @Override
     public ItemExtendedDto findItemById(Long ownerId, Long itemId) {
-        Item tempItem = itemRepository
-                .findById(itemId)
-                .orElseThrow(() -> new NotFoundException(String.format("Item:%d does not exist.", itemId)));
-
-        ItemExtendedDto tempDto = ItemMapper.toItemDto(tempItem);
-        tempDto.setComments(commentRepository.findAllByItem(tempItem));
+        ItemViewCache.ItemView view = itemViewCache.get(itemId, this::loadItemView);
+        ItemExtendedDto tempDto = view.toDto();
 
-        if (tempItem.getOwner().getId().equals(ownerId)) {
-            Sort sort = Sort.by(Sort.Direction.ASC, "start");
-            List<BookingItemDto> bookings = bookingRepository.findAllByItemIn(List.of(tempItem), sort).stream()
-                    .map(BookingMapper::toBookingItemDto)
-                    .collect(Collectors.toList());
-            tempDto.setLastBooking(getLastBooking(bookings));
-            tempDto.setNextBooking(getNextBooking(bookings));
+        if (view.getOwnerId().equals(ownerId)) {
+            ItemBookingSummary summary = bookingSummaryService.getSummaries(List.of(itemId)).get(itemId);
+            tempDto.setLastBooking(BookingMapper.toLastBookingItemDto(summary));
+            tempDto.setNextBooking(BookingMapper.toNextBookingItemDto(summary));
         }
         return tempDto;
     }
@@ -81,61 +123,141 @@ public class ItemServiceImpl implements ItemService {
         if (name.isBlank()) {
             return new ArrayList<>();
         }
+        String text = name.trim().toLowerCase();
+        Pageable page = new Pagination(from, size, Sort.unsorted()).getPageable();
+        if (searchMode == ItemSearchMode.INDEX && !searchIndex.isReady()) {
+            return searchItems(text, null, page).getItems();
+        }
 
-        return itemRepository.findByNameContainingIgnoreCase(name).stream()
+        AtomicReference<List<ItemExtendedDto>> loaded = new AtomicReference<>();
+        long[] itemIds = searchCache.get(text, page, () -> {
+            List<ItemExtendedDto> items = searchItems(text, null, page).getItems();
+            loaded.set(items);
+            return items.stream()
+                    .mapToLong(ItemExtendedDto::getId)
+                    .toArray();
+        });
+        if (loaded.get() != null) {
+            return loaded.get();
+        }
+        return findAvailableInOrder(Arrays.stream(itemIds)
+                .boxed()
+                .collect(Collectors.toList())).stream()
                 .map(ItemMapper::toItemDto)
                 .collect(Collectors.toList());
     }
 
     @Override
-    public List<ItemExtendedDto> findItemsByOwner(Long ownerId, Integer from, Integer size) {
-        List<Item> tempItems = itemRepository.findAllByOwnerOrderByOwner(getUserById(ownerId));
-        Pagination pagination = new Pagination(from, size, Sort.by(Sort.Direction.DESC, "id"));
-        Pageable page = pagination.getPageable();
+    public ItemSearchPageDto findItemsByNameAfter(String name, String after, Integer size) {
+        ItemSearchCursor cursor = ItemSearchCursor.decode(after);
+        if (name.isBlank()) {
+            return ItemSearchPageDto.builder()
+                    .items(new ArrayList<>())
+                    .build();
+        }
 
-        List<Booking> tempBookings = bookingRepository.findAllByItemIn(tempItems, page);
-        Map<Long, List<Booking>> bookingsByItems = new HashMap<>();
+        return searchItems(name, cursor, PageRequest.of(0, size));
+    }
 
-        for (Item item : tempItems) {
-            List<Booking> itemBookings = tempBookings.stream()
-                    .filter(booking -> booking.getItem().equals(item))
-                    .collect(Collectors.toList());
-            bookingsByItems.put(item.getId(), itemBookings);
-        }
+    @Override
+    public List<ItemExtendedDto> findItemsByOwner(Long ownerId, Integer from, Integer size) {
+        getUserById(ownerId);
+        Pagination pagination = new Pagination(from, size, Sort.by(Sort.Direction.ASC, "id"));
+        List<Item> tempItems = itemRepository.findAllByOwnerId(ownerId, pagination.getPageable());
+        List<Long> itemIds = tempItems.stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+        Map<Long, ItemBookingSummary> summaries = bookingSummaryService.getSummaries(itemIds);
+        Map<Long, List<CommentShortDto>> comments = findLatestComments(itemIds);
+        Map<Long, Long> commentCounts = countComments(itemIds);
 
         List<ItemExtendedDto> itemsDto = new ArrayList<>();
 
         for (Item item : tempItems) {
             ItemExtendedDto dtoItem = ItemMapper.toItemDto(item);
 
-            dtoItem.setComments(commentRepository.findAllByItem(item));
+            dtoItem.setComments(comments.getOrDefault(item.getId(), new ArrayList<>()));
+            dtoItem.setCommentsCount(commentCounts.getOrDefault(item.getId(), 0L));
 
-            if (item.getOwner().getId().equals(ownerId)) {
-                List<Booking> bookings = bookingsByItems.get(item.getId());
-                List<BookingItemDto> outForItemBookings = bookings.stream()
-                        .map(BookingMapper::toBookingItemDto)
-                        .collect(Collectors.toList());
-                dtoItem.setLastBooking(getLastBooking(outForItemBookings));
-                dtoItem.setNextBooking(getNextBooking(outForItemBookings));
-                itemsDto.add(dtoItem);
-            }
+            ItemBookingSummary summary = summaries.get(item.getId());
+            dtoItem.setLastBooking(BookingMapper.toLastBookingItemDto(summary));
+            dtoItem.setNextBooking(BookingMapper.toNextBookingItemDto(summary));
+            itemsDto.add(dtoItem);
         }
-        return itemsDto.stream().sorted(Comparator.comparing(ItemExtendedDto::getId))
-                .collect(Collectors.toList());
+        return itemsDto;
     }
 
     @Transactional
     @Override
     public ItemExtendedDto updateItem(Long ownerId, Long itemId, ItemDto changes) {
-        if (findItemsByOwner(ownerId, 0, 1).stream().noneMatch(i -> i.getId().equals(itemId))) {
+        if (!itemRepository.existsByIdAndOwnerId(itemId, ownerId)) {
+            if (!itemRepository.existsById(itemId)) {
+                throw new NotFoundException(String.format("Item:%d does not exist.", itemId));
+            }
             throw new NotFoundException("Only owner can change this");
         }
 
-        ItemExtendedDto tempDto = findItemById(ownerId, itemId);
-        Item tempItem = ItemMapper.toUpdatedItem(tempDto, changes);
-        tempItem.setOwner(getUserById(ownerId));
+        if (changes.getName() != null || changes.getDescription() != null || changes.getAvailable() != null) {
+            itemRepository.updateChanges(itemId, changes.getName(), changes.getDescription(), changes.getAvailable());
+        }
+        Item saved = itemRepository
+                .findById(itemId)
+                .orElseThrow(() -> new NotFoundException(String.format("Item:%d does not exist.", itemId)));
+        searchIndex.onItemChanged(saved);
+        searchCache.onItemChanged();
+        itemViewCache.evict(itemId);
+        return ItemMapper.toItemDto(saved);
+    }
+
+    @Transactional
+    @Override
+    public List<ItemExtendedDto> updateItems(Long ownerId, List<ItemChangeDto> changes) {
+        Map<Long, ItemDto> changesById = new LinkedHashMap<>();
+        for (ItemChangeDto change : changes) {
+            if (change.getItemId() == null || change.getChanges() == null) {
+                throw new ValidationException("Item id and changes must be provided.");
+            }
+            if (changesById.put(change.getItemId(), change.getChanges()) != null) {
+                throw new ValidationException(String.format("Item:%d is listed more than once.", change.getItemId()));
+            }
+        }
+        if (changesById.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Set<Long> owned = new HashSet<>(itemRepository.findOwnedIds(changesById.keySet(), ownerId));
+        List<Long> notOwned = changesById.keySet().stream()
+                .filter(id -> !owned.contains(id))
+                .collect(Collectors.toList());
+        if (!notOwned.isEmpty()) {
+            throw new NotFoundException(String.format("Items:%s do not exist or belong to another user.", notOwned));
+        }
+
+        Map<ItemDto, List<Long>> idsByChanges = new LinkedHashMap<>();
+        changesById.forEach((id, dto) -> idsByChanges.computeIfAbsent(ItemDto.builder()
+                        .name(dto.getName())
+                        .description(dto.getDescription())
+                        .available(dto.getAvailable())
+                        .build(), key -> new ArrayList<>())
+                .add(id));
+        idsByChanges.forEach((dto, ids) -> {
+            if (dto.getName() != null || dto.getDescription() != null || dto.getAvailable() != null) {
+                itemRepository.updateChanges(ids, dto.getName(), dto.getDescription(), dto.getAvailable());
+            }
+        });
 
-        return ItemMapper.toItemDto(itemRepository.save(tempItem));
+        List<Long> itemIds = new ArrayList<>(changesById.keySet());
+        Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, item -> item));
+        List<Item> updated = itemIds.stream()
+                .map(items::get)
+                .collect(Collectors.toList());
+        searchIndex.onItemsChanged(updated);
+        searchCache.onItemChanged();
+        itemViewCache.evictAll(itemIds);
+        return updated.stream()
+                .map(ItemMapper::toItemDto)
+                .collect(Collectors.toList());
     }
 
     @Transactional
@@ -143,41 +265,169 @@ public class ItemServiceImpl implements ItemService {
     public CommentExtendedDto createComment(CommentDto commentDto, Long itemId, Long userId) {
         User user = getUserById(userId);
 
-        Sort sort = Sort.by(Sort.Direction.DESC, "start");
-        bookingRepository.findAllByBooker(user, sort).stream()
-                .filter(booking -> booking.getItem().getId().equals(itemId)
-                        && booking.getBooker().getId().equals(userId)
-                        && booking.getEnd().isBefore(LocalDateTime.now())
-                        && booking.getStatus().equals(BookingStatus.APPROVED))
-                .findFirst()
-                .orElseThrow(() -> new ValidationException(
-                        String.format("User:%d can not leave a comment for Item:%d.", userId, itemId)));
+        if (!bookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(userId, itemId,
+                BookingStatus.APPROVED, LocalDateTime.now())) {
+            throw new ValidationException(
+                    String.format("User:%d can not leave a comment for Item:%d.", userId, itemId));
+        }
 
         Comment tempComment = CommentMapper.toComment(commentDto);
         tempComment.setUser(user);
-        tempComment.setItem(itemRepository
-                .findById(itemId)
-                .orElseThrow(() -> new NotFoundException(String.format("Item:%d does not exist.", itemId))));
+        tempComment.setItem(itemRepository.getReferenceById(itemId));
         tempComment.setAuthorName(user.getName());
 
-        return CommentMapper.toCommentDto(commentRepository.save(tempComment));
+        Comment savedComment = commentRepository.save(tempComment);
+        itemViewCache.evict(itemId);
+        return CommentMapper.toCommentDto(savedComment);
+    }
+
+    @Override
+    public List<CommentShortDto> findComments(Long itemId, Integer from, Integer size) {
+        if (!itemRepository.existsById(itemId)) {
+            throw new NotFoundException(String.format("Item:%d does not exist.", itemId));
+        }
+        return commentRepository.findAllByItemId(itemId, new Pagination(from, size, Sort.unsorted()).getPageable());
+    }
+
+    @Override
+    public ItemAvailabilityDto getItemAvailability(Long itemId, LocalDateTime from, LocalDateTime to,
+                                                   AvailabilityGranularity granularity) {
+        if (!to.isAfter(from)) {
+            throw new ValidationException("Availability end must be after start.");
+        }
+        long slotSeconds = granularity.getDuration().getSeconds();
+        long slotCount = toSlot(from, to, slotSeconds, true);
+        if (slotCount > MAX_AVAILABILITY_SLOTS) {
+            throw new ValidationException(
+                    String.format("Availability can not exceed %d slots.", MAX_AVAILABILITY_SLOTS));
+        }
+        int slots = (int) slotCount;
+        if (!itemRepository.existsById(itemId)) {
+            throw new NotFoundException(String.format("Item:%d does not exist.", itemId));
+        }
+
+        BitSet busy = new BitSet(slots);
+        LocalDateTime now = LocalDateTime.now();
+        if (now.isAfter(from)) {
+            busy.set(0, (int) Math.min(slots, toSlot(from, now, slotSeconds, false)));
+        }
+        for (ItemAvailabilityCache.BusyInterval interval : availabilityCache.getBusyIntervals(itemId)) {
+            if (interval.getStart().isBefore(to) && interval.getEnd().isAfter(from)) {
+                LocalDateTime start = interval.getStart().isAfter(from) ? interval.getStart() : from;
+                LocalDateTime end = interval.getEnd().isBefore(to) ? interval.getEnd() : to;
+                busy.set((int) toSlot(from, start, slotSeconds, false), (int) toSlot(from, end, slotSeconds, true));
+            }
+        }
+
+        return ItemAvailabilityDto.builder()
+                .itemId(itemId)
+                .from(from)
+                .to(to)
+                .granularity(granularity)
+                .slots(slots)
+                .busy(Base64.getEncoder().encodeToString(busy.toByteArray()))
+                .build();
+    }
+
+    private long toSlot(LocalDateTime from, LocalDateTime time, long slotSeconds, boolean roundUp) {
+        long seconds = Duration.between(from, time).getSeconds();
+        return (roundUp ? seconds + slotSeconds - 1 : seconds) / slotSeconds;
     }
 
-    private BookingItemDto getLastBooking(List<BookingItemDto> bookingItemsDto) {
-        return bookingItemsDto.stream()
-                .filter(dto -> dto.getStart().isBefore(LocalDateTime.now()) &&
-                        dto.getStatus().equals(BookingStatus.APPROVED))
-                .reduce((first, second) -> second)
-                .orElse(null);
+    // Tokens match word prefixes, like the in-memory index: "dri" finds "Drill", "rill" does not.
+    private String toTsQuery(String text) {
+        return ItemSearchIndex.tokenize(text).stream()
+                .map(token -> token + ":*")
+                .collect(Collectors.joining(" & "));
     }
 
-    private BookingItemDto getNextBooking(List<BookingItemDto> bookingItemsDto) {
-        return bookingItemsDto.stream()
-                .filter(dtoBooking -> (dtoBooking.getStart().isAfter(LocalDateTime.now()) ||
-                        dtoBooking.getStart().isEqual(LocalDateTime.now())) &&
-                        dtoBooking.getStatus().equals(BookingStatus.APPROVED))
-                .findFirst()
-                .orElse(null);
+    private ItemSearchPageDto searchItems(String text, ItemSearchCursor cursor, Pageable page) {
+        boolean ranked = searchMode == ItemSearchMode.FULL_TEXT
+                || searchMode == ItemSearchMode.INDEX && searchIndex.isReady();
+        if (!ranked) {
+            List<Item> found = cursor == null
+                    ? itemRepository.findByNameContainingIgnoreCase(text, page)
+                    : itemRepository.findByNameContainingIgnoreCaseAfter(text, cursor.getId(), page);
+            return ItemSearchPageDto.builder()
+                    .items(found.stream()
+                            .map(ItemMapper::toItemDto)
+                            .collect(Collectors.toList()))
+                    .nextCursor(found.size() == page.getPageSize()
+                            ? new ItemSearchCursor(null, found.get(found.size() - 1).getId()).encode()
+                            : null)
+                    .build();
+        }
+        if (cursor != null && cursor.getRank() == null) {
+            throw new ValidationException("Provided wrong item search cursor.");
+        }
+
+        List<ItemSearchHit> hits;
+        if (searchMode == ItemSearchMode.INDEX) {
+            int limit = (int) Math.min(Integer.MAX_VALUE, page.getOffset() + page.getPageSize());
+            hits = searchIndex.search(text, cursor == null ? null : cursor.getRank(),
+                    cursor == null ? null : cursor.getId(), limit).stream()
+                    .skip(page.getOffset())
+                    .collect(Collectors.toList());
+        } else {
+            String query = toTsQuery(text);
+            if (query.isEmpty()) {
+                hits = List.of();
+            } else if (cursor == null) {
+                hits = itemRepository.searchAvailableByText(query, page);
+            } else {
+                hits = itemRepository.searchAvailableByTextAfter(query, cursor.getRank(), cursor.getId(), page);
+            }
+        }
+
+        ItemSearchHit last = hits.isEmpty() ? null : hits.get(hits.size() - 1);
+        return ItemSearchPageDto.builder()
+                .items(findAvailableInOrder(hits.stream()
+                        .map(ItemSearchHit::getId)
+                        .collect(Collectors.toList())).stream()
+                        .map(ItemMapper::toItemDto)
+                        .collect(Collectors.toList()))
+                .nextCursor(hits.size() == page.getPageSize()
+                        ? new ItemSearchCursor(last.getRank(), last.getId()).encode()
+                        : null)
+                .build();
+    }
+
+    private List<Item> findAvailableInOrder(List<Long> itemIds) {
+        Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, item -> item));
+        return itemIds.stream()
+                .map(items::get)
+                .filter(item -> item != null && item.getAvailable())
+                .collect(Collectors.toList());
+    }
+
+    private ItemViewCache.ItemView loadItemView(Long itemId) {
+        Item tempItem = itemRepository
+                .findById(itemId)
+                .orElseThrow(() -> new NotFoundException(String.format("Item:%d does not exist.", itemId)));
+
+        ItemExtendedDto tempDto = ItemMapper.toItemDto(tempItem);
+        List<Long> itemIds = List.of(itemId);
+        tempDto.setComments(findLatestComments(itemIds).getOrDefault(itemId, new ArrayList<>()));
+        tempDto.setCommentsCount(countComments(itemIds).getOrDefault(itemId, 0L));
+        return new ItemViewCache.ItemView(tempItem.getOwner().getId(), tempDto);
+    }
+
+    private Map<Long, List<CommentShortDto>> findLatestComments(List<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        return commentRepository.findLatestByItemIds(itemIds, commentsPerItem).stream()
+                .map(CommentMapper::toCommentShortDto)
+                .collect(Collectors.groupingBy(CommentShortDto::getItemId));
+    }
+
+    private Map<Long, Long> countComments(List<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        return commentRepository.countByItemIds(itemIds).stream()
+                .collect(Collectors.toMap(CommentCountDto::getItemId, CommentCountDto::getCount));
     }
 
     private User getUserById(Long userId) {
@@ -0,0 +1,79 @@
+package ru.practicum.shareit.item.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.ItemExtendedDto;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.function.Function;
+
+@Component
+public class ItemViewCache {
+    private final Cache<Long, ItemView> views;
+
+    public ItemViewCache(MeterRegistry meterRegistry,
+                         @Value("${shareit.item.view-cache.max-weight:100000}") long maxWeight) {
+        this.views = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((Long itemId, ItemView view) -> view.weight())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, views, "item.view");
+    }
+
+    public ItemView get(Long itemId, Function<Long, ItemView> loader) {
+        return views.get(itemId, loader);
+    }
+
+    public void evict(Long itemId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            views.invalidate(itemId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                views.invalidate(itemId);
+            }
+        });
+    }
+
+    public void evictAll(Collection<Long> itemIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            views.invalidateAll(itemIds);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                views.invalidateAll(itemIds);
+            }
+        });
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class ItemView {
+        private final Long ownerId;
+        private final ItemExtendedDto item;
+
+        public ItemExtendedDto toDto() {
+            return item.toBuilder()
+                    .comments(new ArrayList<>(item.getComments()))
+                    .build();
+        }
+
+        private int weight() {
+            return 1 + item.getComments().size();
+        }
+    }
+}
@@ -13,6 +13,13 @@ public class UserMapper {
                 .email(user.getEmail()).build();
     }
 
+    public UserShortDto toUserShortDto(User user) {
+        return UserShortDto.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .build();
+    }
+
     public User toUser(UserDto userDto) {
         if (userDto.getEmail() == null || userDto.getEmail().isEmpty()) {
             throw new ValidationException("Email can not be empty!");
@@ -0,0 +1,37 @@
+DO '
+DECLARE
+    IDX RECORD;
+BEGIN
+    IF (SELECT RELKIND FROM PG_CLASS WHERE OID = TO_REGCLASS(''bookings'')) = ''r'' THEN
+        ALTER TABLE BOOKINGS RENAME TO BOOKINGS_DEFAULT;
+        ALTER TABLE BOOKINGS_DEFAULT RENAME CONSTRAINT PK_BOOKING TO PK_BOOKING_DEFAULT;
+        ALTER TABLE BOOKINGS_DEFAULT ALTER COLUMN ID DROP IDENTITY IF EXISTS;
+        CREATE TABLE BOOKINGS (
+            LIKE BOOKINGS_DEFAULT INCLUDING DEFAULTS,
+            CONSTRAINT PK_BOOKING PRIMARY KEY (ID, END_TIME),
+            FOREIGN KEY (ITEM_ID) REFERENCES ITEMS (ID),
+            FOREIGN KEY (BOOKER_ID) REFERENCES USERS (ID)
+        ) PARTITION BY RANGE (END_TIME);
+        FOR IDX IN SELECT INDEXRELID::REGCLASS AS NAME, PG_GET_INDEXDEF(INDEXRELID) AS DEF
+                   FROM PG_INDEX
+                   WHERE INDRELID = ''bookings_default''::REGCLASS AND NOT INDISPRIMARY LOOP
+            EXECUTE ''DROP INDEX '' || IDX.NAME;
+            EXECUTE REGEXP_REPLACE(IDX.DEF, '' ON \S+ '', '' ON bookings '');
+        END LOOP;
+        ALTER TABLE BOOKINGS ATTACH PARTITION BOOKINGS_DEFAULT DEFAULT;
+    END IF;
+END';
+
+CREATE TABLE IF NOT EXISTS BOOKINGS_ARCHIVE (
+  ID            BIGINT NOT NULL,
+  START_TIME    TIMESTAMP NOT NULL,
+  END_TIME      TIMESTAMP NOT NULL,
+  ITEM_ID       BIGINT NOT NULL,
+  BOOKER_ID     BIGINT NOT NULL,
+  STATUS        VARCHAR(10) NOT NULL,
+  VERSION       BIGINT NOT NULL DEFAULT 0,
+  ARCHIVED_AT   TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  CONSTRAINT PK_BOOKING_ARCHIVE PRIMARY KEY (ID)
+);
+
+CREATE INDEX IF NOT EXISTS IX_BOOKINGS_ARCHIVE_BOOKER ON BOOKINGS_ARCHIVE (BOOKER_ID, END_TIME);
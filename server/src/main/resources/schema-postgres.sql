@@ -0,0 +1,2 @@
+SELECT SETVAL('BOOKINGS_SEQ', GREATEST((SELECT COALESCE(MAX(ID), 0) FROM BOOKINGS) + 1,
+    (SELECT LAST_VALUE FROM BOOKINGS_SEQ)));
@@ -0,0 +1,4 @@
+ALTER TABLE ITEMS ADD COLUMN IF NOT EXISTS SEARCH_VECTOR TSVECTOR
+    GENERATED ALWAYS AS (TO_TSVECTOR('simple', COALESCE(NAME, '') || ' ' || COALESCE(DESCRIPTION, ''))) STORED;
+
+CREATE INDEX IF NOT EXISTS IX_ITEMS_SEARCH_VECTOR ON ITEMS USING GIN (SEARCH_VECTOR);
@@ -21,9 +21,12 @@ CREATE TABLE IF NOT EXISTS ITEMS (
   AVAILABLE     BOOLEAN,
   OWNER_ID         BIGINT NOT NULL REFERENCES USERS (ID) ON DELETE CASCADE,
   REQUEST_ID    BIGINT REFERENCES REQUESTS (ID) ON DELETE CASCADE,
+  VERSION       BIGINT NOT NULL DEFAULT 0,
   CONSTRAINT PK_ITEM PRIMARY KEY (ID)
 );
 
+CREATE SEQUENCE IF NOT EXISTS BOOKINGS_SEQ START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS BOOKINGS (
   ID            BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
   START_TIME    TIMESTAMP NOT NULL,
@@ -31,9 +34,23 @@ CREATE TABLE IF NOT EXISTS BOOKINGS (
   ITEM_ID       BIGINT NOT NULL REFERENCES ITEMS (ID),
   BOOKER_ID     BIGINT NOT NULL REFERENCES USERS (ID),
   STATUS        VARCHAR(10) NOT NULL,
+  VERSION       BIGINT NOT NULL DEFAULT 0,
   CONSTRAINT PK_BOOKING PRIMARY KEY (ID)
 );
 
+CREATE TABLE IF NOT EXISTS ITEM_BOOKING_SUMMARY (
+  ITEM_ID         BIGINT NOT NULL REFERENCES ITEMS (ID) ON DELETE CASCADE,
+  LAST_BOOKING_ID BIGINT,
+  LAST_BOOKER_ID  BIGINT,
+  LAST_START      TIMESTAMP,
+  LAST_END        TIMESTAMP,
+  NEXT_BOOKING_ID BIGINT,
+  NEXT_BOOKER_ID  BIGINT,
+  NEXT_START      TIMESTAMP,
+  NEXT_END        TIMESTAMP,
+  CONSTRAINT PK_ITEM_BOOKING_SUMMARY PRIMARY KEY (ITEM_ID)
+);
+
 CREATE TABLE IF NOT EXISTS COMMENTS (
     ID          BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
     COMMENT     VARCHAR(2000) NOT NULL,
@@ -42,4 +59,20 @@ CREATE TABLE IF NOT EXISTS COMMENTS (
     AUTHOR_NAME VARCHAR(100),
     CREATED     TIMESTAMP NOT NULL,
     CONSTRAINT PK_COMMENTS PRIMARY KEY (ID)
-);
\ No newline at end of file
+);
+
+ALTER TABLE ITEMS ADD COLUMN IF NOT EXISTS VERSION BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE BOOKINGS ADD COLUMN IF NOT EXISTS VERSION BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS IX_BOOKINGS_BOOKER_START ON BOOKINGS (BOOKER_ID, START_TIME);
+
+CREATE INDEX IF NOT EXISTS IX_BOOKINGS_ITEM_START_END ON BOOKINGS (ITEM_ID, START_TIME, END_TIME);
+
+CREATE INDEX IF NOT EXISTS IX_BOOKINGS_STATUS_START ON BOOKINGS (STATUS, START_TIME);
+
+CREATE INDEX IF NOT EXISTS IX_BOOKINGS_BOOKER_ITEM_STATUS_END ON BOOKINGS (BOOKER_ID, ITEM_ID, STATUS, END_TIME);
+
+CREATE INDEX IF NOT EXISTS IX_COMMENTS_ITEM_CREATED ON COMMENTS (ITEM_ID, CREATED);
+
+CREATE INDEX IF NOT EXISTS IX_ITEM_BOOKING_SUMMARY_NEXT ON ITEM_BOOKING_SUMMARY (NEXT_START);
@@ -0,0 +1,167 @@
+package ru.practicum.shareit;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.booking.controller.BookingController;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.controller.ItemController;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+@SpringBootTest(classes = ShareItServer.class)
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ConcurrentUpdateTest {
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 10;
+
+    private final BookingController bookingController;
+    private final ItemController itemController;
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+
+    private ExecutorService executor;
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(THREADS);
+        owner = userRepository.save(User.builder()
+                .name("owner")
+                .email("concurrent-owner@mail.ru")
+                .build());
+        booker = userRepository.save(User.builder()
+                .name("booker")
+                .email("concurrent-booker@mail.ru")
+                .build());
+        item = itemRepository.save(Item.builder()
+                .name("item")
+                .description("description")
+                .available(false)
+                .owner(owner)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        bookingRepository.deleteAll(bookingRepository.findAllByItemIn(List.of(item), Sort.unsorted()));
+        itemRepository.deleteById(item.getId());
+        userRepository.deleteAll(List.of(owner, booker));
+    }
+
+    @Test
+    @Timeout(60)
+    void concurrentApprovalsApplyOnceTest() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        for (int round = 0; round < ROUNDS; round++) {
+            Booking booking = bookingRepository.save(Booking.builder()
+                    .start(start.plusHours(round))
+                    .end(start.plusHours(round).plusMinutes(30))
+                    .item(item)
+                    .booker(booker)
+                    .status(BookingStatus.WAITING)
+                    .build());
+            AtomicInteger approved = new AtomicInteger();
+            AtomicInteger rejected = new AtomicInteger();
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                tasks.add(() -> {
+                    try {
+                        bookingController.approveBooking(owner.getId(), booking.getId(), true);
+                        approved.incrementAndGet();
+                    } catch (ValidationException | ConflictException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+
+            runTogether(tasks);
+
+            Booking stored = bookingRepository.findById(booking.getId()).get();
+            assertEquals(1, approved.get());
+            assertEquals(THREADS - 1, rejected.get());
+            assertEquals(BookingStatus.APPROVED, stored.getStatus());
+            assertEquals(1, stored.getVersion());
+        }
+    }
+
+    @Test
+    @Timeout(60)
+    void concurrentItemUpdatesAreNotLostTest() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            String name = "name-" + round;
+            String description = "description-" + round;
+            boolean available = round % 2 == 0;
+            List<Callable<Void>> tasks = List.of(
+                    () -> update(ItemDto.builder().name(name).build()),
+                    () -> update(ItemDto.builder().description(description).build()),
+                    () -> update(ItemDto.builder().available(available).build()));
+
+            runTogether(tasks);
+
+            Item stored = itemRepository.findById(item.getId()).get();
+            assertEquals(name, stored.getName());
+            assertEquals(description, stored.getDescription());
+            assertEquals(available, stored.getAvailable());
+        }
+        assertEquals(ROUNDS * 3L, itemRepository.findById(item.getId()).get().getVersion());
+    }
+
+    private Void update(ItemDto changes) {
+        itemController.updateItem(owner.getId(), item.getId(), changes);
+        return null;
+    }
+
+    private void runTogether(List<Callable<Void>> tasks) throws InterruptedException {
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<Void>> futures = new ArrayList<>();
+        for (Callable<Void> task : tasks) {
+            futures.add(executor.submit(() -> {
+                ready.await();
+                return task.call();
+            }));
+        }
+        ready.countDown();
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                fail(e.getCause());
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.service.BookingArchiveJob;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingArchiveJobTest {
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    private BookingArchiveJob archiveJob;
+
+    @BeforeEach
+    void setUp() {
+        archiveJob = new BookingArchiveJob(jdbcTemplate, transactionTemplate, 180, 2, 10);
+    }
+
+    @Test
+    void archiveBookingsInChunksTest() {
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocationOnMock -> invocationOnMock.<TransactionCallback<Integer>>getArgument(0)
+                        .doInTransaction(null));
+        when(jdbcTemplate.update(anyString(), any(), any(), eq(2)))
+                .thenReturn(2, 2, 1);
+
+        archiveJob.archiveBookings();
+
+        verify(jdbcTemplate, times(3)).update(contains("BOOKINGS_ARCHIVE"), any(), any(), eq(2));
+    }
+
+    @Test
+    void archiveBookingsStopsAtMaxChunksTest() {
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocationOnMock -> invocationOnMock.<TransactionCallback<Integer>>getArgument(0)
+                        .doInTransaction(null));
+        when(jdbcTemplate.update(anyString(), any(), any(), eq(2)))
+                .thenReturn(2);
+
+        archiveJob.archiveBookings();
+
+        verify(jdbcTemplate, times(10)).update(anyString(), any(), any(), eq(2));
+    }
+
+    @Test
+    void createPartitionsMovesRowsFromDefaultTest() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), anyString()))
+                .thenReturn(false);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocationOnMock -> invocationOnMock.<TransactionCallback<Integer>>getArgument(0)
+                        .doInTransaction(null));
+
+        archiveJob.createPartitions();
+
+        InOrder order = Mockito.inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).execute(contains("DETACH PARTITION BOOKINGS_DEFAULT"));
+        order.verify(jdbcTemplate).execute(contains("BOOKINGS_HISTORY PARTITION OF BOOKINGS"));
+        order.verify(jdbcTemplate).update(contains("END_TIME >= '-infinity'"));
+        order.verify(jdbcTemplate).execute(contains("ATTACH PARTITION BOOKINGS_DEFAULT DEFAULT"));
+        verify(jdbcTemplate, times(1)).execute(contains("FOR VALUES FROM (MINVALUE)"));
+        verify(jdbcTemplate, times(5)).execute(contains("PARTITION OF BOOKINGS FOR VALUES FROM ('"));
+        verify(jdbcTemplate, times(6)).update(contains("DELETE FROM BOOKINGS_DEFAULT"));
+    }
+
+    @Test
+    void createPartitionsSkipsExistingTest() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), anyString()))
+                .thenReturn(true);
+
+        archiveJob.createPartitions();
+
+        verify(transactionTemplate, never()).execute(any());
+    }
+
+    @Test
+    void createPartitionsFailsLoudlyTest() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), anyString()))
+                .thenReturn(false);
+        when(transactionTemplate.execute(any()))
+                .thenThrow(new DataIntegrityViolationException("partition constraint violated"));
+
+        assertThrows(DataIntegrityViolationException.class, () -> archiveJob.createPartitions());
+    }
+}
@@ -11,11 +11,17 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import ru.practicum.shareit.booking.controller.BookingController;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingDecisionOutcome;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.service.BookingCursor;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.UnsupportedStateException;
@@ -103,6 +109,56 @@ class BookingControllerTest {
                         is(booking.getEnd().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))));
     }
 
+    @Test
+    @SneakyThrows
+    void createBookingsBatchTest() {
+        when(bookingService.createBookings(any(), any(Long.class)))
+                .thenReturn(List.of(
+                        BookingBatchResultDto.builder()
+                                .index(0)
+                                .booking(BookingMapper.toBookingExtendedDto(booking))
+                                .build(),
+                        BookingBatchResultDto.builder()
+                                .index(1)
+                                .error("Item:999 is not exist.")
+                                .build()));
+
+        mockMvc.perform(post("/bookings/batch")
+                        .content(objectMapper.writeValueAsString(List.of(createBooking, createBooking)))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[0].booking.id", is(booking.getId()), Long.class))
+                .andExpect(jsonPath("$.[1].error", is("Item:999 is not exist.")));
+    }
+
+    @Test
+    @SneakyThrows
+    void approveBookingsTest() {
+        when(bookingService.approveOrRejectBookings(any(), any(Long.class), any(Boolean.class)))
+                .thenReturn(List.of(
+                        BookingDecisionResultDto.builder()
+                                .bookingId(1L)
+                                .outcome(BookingDecisionOutcome.APPROVED)
+                                .build(),
+                        BookingDecisionResultDto.builder()
+                                .bookingId(2L)
+                                .outcome(BookingDecisionOutcome.NOT_WAITING)
+                                .build()));
+
+        mockMvc.perform(patch("/bookings/approve")
+                        .content(objectMapper.writeValueAsString(BookingDecisionDto.builder()
+                                .bookingIds(List.of(1L, 2L))
+                                .approved(true)
+                                .build()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[0].outcome", is("APPROVED")))
+                .andExpect(jsonPath("$.[1].bookingId", is(2L), Long.class))
+                .andExpect(jsonPath("$.[1].outcome", is("NOT_WAITING")));
+    }
+
     @Test
     @SneakyThrows
     void createNotFoundItemTest() {
@@ -209,11 +265,32 @@ class BookingControllerTest {
                         is(booking.getEnd().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))));
     }
 
+    @Test
+    @SneakyThrows
+    void getBookingsByUserAfterCursorTest() {
+        when(bookingService.getUserBookingsAfter(any(Long.class), any(BookingState.class), any(String.class),
+                any(Integer.class)))
+                .thenReturn(List.of(BookingMapper.toBookingExtendedDto(booking)));
+
+        mockMvc.perform(get("/bookings")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .param("from", "0")
+                        .param("size", "1")
+                        .param("state", "ALL")
+                        .param("after", "")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor",
+                        BookingCursor.of(BookingMapper.toBookingExtendedDto(booking)).encode()))
+                .andExpect(jsonPath("$.[0].id", is(booking.getId()), Long.class));
+    }
+
     @Test
     @SneakyThrows
     void approveBookingTest() {
         when(bookingService.approveOrRejectBooking(1L, 1L, true))
-                .thenReturn(booking);
+                .thenReturn(BookingMapper.toBookingExtendedDto(booking));
 
         mockMvc.perform(patch("/bookings/1?approved=true")
                         .characterEncoding(StandardCharsets.UTF_8)
@@ -233,7 +310,7 @@ class BookingControllerTest {
     void rejectBookingTest() {
         booking.setStatus(BookingStatus.REJECTED);
         when(bookingService.approveOrRejectBooking(1L, 1L, false))
-                .thenReturn(booking);
+                .thenReturn(BookingMapper.toBookingExtendedDto(booking));
 
         mockMvc.perform(patch("/bookings/1?approved=false")
                         .characterEncoding(StandardCharsets.UTF_8)
@@ -247,4 +324,19 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$.end",
                         is(booking.getEnd().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))));
     }
-}
\ No newline at end of file
+
+    @Test
+    @SneakyThrows
+    void getItemOwnerBookingCountsTest() {
+        when(bookingService.getItemOwnerBookingCounts(1L))
+                .thenReturn(new BookingCountsDto(4L, 1L, 1L, 1L, 1L, 1L));
+
+        mockMvc.perform(get("/bookings/owner/counts")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.all", is(4L), Long.class))
+                .andExpect(jsonPath("$.waiting", is(1L), Long.class))
+                .andExpect(jsonPath("$.future", is(1L), Long.class));
+    }
+}
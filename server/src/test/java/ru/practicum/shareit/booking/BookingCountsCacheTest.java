@@ -0,0 +1,61 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.service.BookingCountsCache;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BookingCountsCacheTest {
+    private final BookingCountsCache cache = new BookingCountsCache(new SimpleMeterRegistry(), 100,
+            Duration.ofMinutes(1));
+    private final AtomicLong loads = new AtomicLong();
+
+    @Test
+    void bookingChangeEvictsOnlyItsUsersTest() {
+        Booking booking = Booking.builder()
+                .booker(User.builder().id(1L).build())
+                .item(Item.builder()
+                        .owner(User.builder().id(3L).build())
+                        .build())
+                .build();
+        cache.getBookerCounts(1L, this::load);
+        cache.getBookerCounts(2L, this::load);
+        cache.getOwnerCounts(3L, this::load);
+        cache.getOwnerCounts(4L, this::load);
+
+        cache.onBookingChanged(booking);
+
+        assertEquals(5L, cache.getBookerCounts(1L, this::load).getAll());
+        assertEquals(2L, cache.getBookerCounts(2L, this::load).getAll());
+        assertEquals(6L, cache.getOwnerCounts(3L, this::load).getAll());
+        assertEquals(4L, cache.getOwnerCounts(4L, this::load).getAll());
+        assertEquals(6L, loads.get());
+    }
+
+    @Test
+    void evictAllEvictsOnlyListedUsersTest() {
+        cache.getBookerCounts(1L, this::load);
+        cache.getBookerCounts(2L, this::load);
+        cache.getOwnerCounts(3L, this::load);
+
+        cache.evictAll(List.of(1L), List.of(3L));
+
+        assertEquals(4L, cache.getBookerCounts(1L, this::load).getAll());
+        assertEquals(2L, cache.getBookerCounts(2L, this::load).getAll());
+        assertEquals(5L, cache.getOwnerCounts(3L, this::load).getAll());
+    }
+
+    private BookingCountsDto load() {
+        long load = loads.incrementAndGet();
+        return new BookingCountsDto(load, 0L, 0L, 0L, 0L, 0L);
+    }
+}
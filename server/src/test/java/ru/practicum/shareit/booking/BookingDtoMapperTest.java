@@ -8,7 +8,9 @@ import ru.practicum.shareit.booking.dto.BookingExtendedDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dto.ItemShortDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dto.UserShortDto;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
@@ -31,8 +33,8 @@ class BookingDtoMapperTest {
                 .id(1L)
                 .start(booking.getStart())
                 .end(booking.getEnd())
-                .item(new Item())
-                .booker(new User())
+                .item(ItemShortDto.builder().build())
+                .booker(UserShortDto.builder().build())
                 .status(BookingStatus.APPROVED)
                 .build();
 
@@ -80,8 +82,8 @@ class BookingDtoMapperTest {
                 .id(1L)
                 .start(booking.getStart())
                 .end(booking.getEnd())
-                .item(item)
-                .booker(booker)
+                .item(ItemShortDto.builder().id(1L).name("itemName").build())
+                .booker(UserShortDto.builder().id(1L).name("name").build())
                 .status(BookingStatus.APPROVED)
                 .build();
 
@@ -0,0 +1,136 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingCountsCache;
+import ru.practicum.shareit.booking.service.BookingExpiryJob;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemAvailabilityCache;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@DirtiesContext
+class BookingExpiryJobTest {
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private final ItemAvailabilityCache availabilityCache = Mockito.mock(ItemAvailabilityCache.class);
+    private final BookingCountsCache countsCache = Mockito.mock(BookingCountsCache.class);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .name("owner")
+                .email("expiry-owner@mail.ru")
+                .build());
+        booker = userRepository.save(User.builder()
+                .name("booker")
+                .email("expiry-booker@mail.ru")
+                .build());
+        item = itemRepository.save(Item.builder()
+                .name("item")
+                .description("description")
+                .available(true)
+                .owner(owner)
+                .build());
+    }
+
+    @Test
+    void expireStartedWaitingBookingsInChunksTest() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking first = saveBooking(now.minusDays(3), BookingStatus.WAITING);
+        Booking second = saveBooking(now.minusDays(2), BookingStatus.WAITING);
+        Booking third = saveBooking(now.minusDays(1), BookingStatus.WAITING);
+        Booking approved = saveBooking(now.minusDays(1), BookingStatus.APPROVED);
+        Booking future = saveBooking(now.plusDays(1), BookingStatus.WAITING);
+        entityManager.flush();
+        entityManager.clear();
+
+        new BookingExpiryJob(jdbcTemplate, transactionTemplate, availabilityCache, countsCache, meterRegistry, 2, 10)
+                .expireBookings();
+
+        assertEquals(BookingStatus.CANCELLED, bookingRepository.findById(first.getId()).get().getStatus());
+        assertEquals(BookingStatus.CANCELLED, bookingRepository.findById(second.getId()).get().getStatus());
+        assertEquals(BookingStatus.CANCELLED, bookingRepository.findById(third.getId()).get().getStatus());
+        assertEquals(1L, bookingRepository.findById(third.getId()).get().getVersion());
+        assertEquals(BookingStatus.APPROVED, bookingRepository.findById(approved.getId()).get().getStatus());
+        assertEquals(BookingStatus.WAITING, bookingRepository.findById(future.getId()).get().getStatus());
+        assertEquals(3.0, meterRegistry.get("shareit.booking.expiry.swept").counter().count());
+        assertEquals(1L, meterRegistry.get("shareit.booking.expiry.sweep").timer().count());
+        verify(availabilityCache).evictAll(Set.of(item.getId()));
+        verify(countsCache).evictAll(Set.of(booker.getId()), Set.of(owner.getId()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void skipSweepWhenAdvisoryLockIsHeldTest() {
+        JdbcTemplate postgres = Mockito.mock(JdbcTemplate.class);
+        TransactionTemplate transactions = Mockito.mock(TransactionTemplate.class);
+        when(postgres.execute(any(ConnectionCallback.class)))
+                .thenReturn("PostgreSQL");
+        when(postgres.queryForObject(anyString(), eq(Boolean.class), any()))
+                .thenReturn(false);
+        when(transactions.execute(any()))
+                .thenAnswer(invocationOnMock -> invocationOnMock.<TransactionCallback<Integer>>getArgument(0)
+                        .doInTransaction(null));
+
+        new BookingExpiryJob(postgres, transactions, availabilityCache, countsCache, meterRegistry, 2, 10)
+                .expireBookings();
+
+        verify(postgres, never()).update(anyString(), any(), any());
+        verify(availabilityCache, never()).evictAll(any());
+        verify(countsCache, never()).evictAll(any(), any());
+        assertEquals(0.0, meterRegistry.get("shareit.booking.expiry.swept").counter().count());
+    }
+
+    private Booking saveBooking(LocalDateTime start, BookingStatus status) {
+        return bookingRepository.save(Booking.builder()
+                .start(start)
+                .end(start.plusHours(1))
+                .item(item)
+                .booker(booker)
+                .status(status)
+                .build());
+    }
+}
@@ -1,12 +1,18 @@
 package ru.practicum.shareit.booking;
 
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
+import ru.practicum.shareit.booking.dto.BookingExtendedDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.item.model.Item;
@@ -17,8 +23,11 @@ import ru.practicum.shareit.user.repository.UserRepository;
 import javax.persistence.EntityManager;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
 class BookingRepositoryTest {
@@ -71,6 +80,7 @@ class BookingRepositoryTest {
             .build();
 
     private final Sort sort = Sort.by(Sort.Direction.DESC, "start");
+    private final Pageable page = PageRequest.of(0, 10, sort);
 
     @BeforeEach
     void setUp() {
@@ -94,6 +104,23 @@ class BookingRepositoryTest {
         assertEquals(booking.getStatus(), received.getStatus());
     }
 
+    @Test
+    @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+    void existsPastApprovedBookingTest() {
+        LocalDateTime later = LocalDateTime.now().plusHours(2);
+
+        assertTrue(bookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(user2.getId(), item2.getId(),
+                BookingStatus.APPROVED, later));
+        assertFalse(bookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(user2.getId(), item2.getId(),
+                BookingStatus.APPROVED, LocalDateTime.now()));
+        assertFalse(bookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(user2.getId(), item.getId(),
+                BookingStatus.APPROVED, later));
+        assertFalse(bookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(user1.getId(), item2.getId(),
+                BookingStatus.APPROVED, later));
+        assertFalse(bookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(user2.getId(), item2.getId(),
+                BookingStatus.REJECTED, later));
+    }
+
     @Test
     @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
     void getAllByBookerAndStatusTest() {
@@ -145,4 +172,210 @@ class BookingRepositoryTest {
         assertEquals(booking.getBooker(), received.getBooker());
         assertEquals(booking.getStatus(), received.getStatus());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+    void getByBookerAndTimeStatesTest() {
+        Booking past = bookingRepository.save(Booking.builder()
+                .start(LocalDateTime.now().minusDays(2))
+                .end(LocalDateTime.now().minusDays(1))
+                .item(item)
+                .booker(user1)
+                .status(BookingStatus.APPROVED)
+                .build());
+        Booking future = bookingRepository.save(Booking.builder()
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .item(item)
+                .booker(user1)
+                .status(BookingStatus.WAITING)
+                .build());
+        User booker = past.getBooker();
+
+        List<BookingExtendedDto> pastBookings = bookingRepository.findBookerBookings(booker.getId(),
+                BookingState.PAST, page);
+        List<BookingExtendedDto> futureBookings = bookingRepository.findBookerBookings(booker.getId(),
+                BookingState.FUTURE, page);
+        List<BookingExtendedDto> currentBookings = bookingRepository.findBookerBookings(booker.getId(),
+                BookingState.CURRENT, page);
+
+        assertEquals(List.of(past.getId()), pastBookings.stream()
+                .map(BookingExtendedDto::getId)
+                .collect(Collectors.toList()));
+        assertEquals(List.of(future.getId()), futureBookings.stream()
+                .map(BookingExtendedDto::getId)
+                .collect(Collectors.toList()));
+        assertEquals(past.getItem().getName(), pastBookings.get(0).getItem().getName());
+        assertEquals(booker.getName(), pastBookings.get(0).getBooker().getName());
+        assertEquals(0, currentBookings.size());
+    }
+
+    @Test
+    @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+    void getByItemOwnerAndTimeStatesTest() {
+        Booking approved = bookingRepository.findAllByBookerAndStatus(user2, BookingStatus.APPROVED, sort).get(0);
+        Long ownerId = approved.getItem().getOwner().getId();
+
+        List<BookingExtendedDto> current = bookingRepository.findOwnerBookings(ownerId, BookingState.CURRENT, page);
+        List<BookingExtendedDto> past = bookingRepository.findOwnerBookings(ownerId, BookingState.PAST, page);
+        List<BookingExtendedDto> future = bookingRepository.findOwnerBookings(ownerId, BookingState.FUTURE, page);
+
+        assertEquals(1, current.size());
+        assertEquals(approved.getId(), current.get(0).getId());
+        assertEquals(approved.getItem().getId(), current.get(0).getItem().getId());
+        assertEquals(0, past.size());
+        assertEquals(0, future.size());
+    }
+
+    @Test
+    @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+    void existsApprovedOverlapTest() {
+        Booking approved = bookingRepository.findAllByBookerAndStatus(user2, BookingStatus.APPROVED, sort).get(0);
+        Long bookedItemId = approved.getItem().getId();
+        Long freeItemId = itemRepository.save(Item.builder()
+                .name("free")
+                .description("free item")
+                .available(true)
+                .owner(approved.getItem().getOwner())
+                .build()).getId();
+        LocalDateTime start = approved.getStart();
+        LocalDateTime end = approved.getEnd();
+
+        assertTrue(bookingRepository.existsApprovedOverlap(bookedItemId, start.plusMinutes(30), end.plusHours(1)));
+        assertFalse(bookingRepository.existsApprovedOverlap(bookedItemId, end.plusSeconds(1), end.plusHours(1)));
+        assertFalse(bookingRepository.existsApprovedOverlap(freeItemId, start, end));
+    }
+
+    @Test
+    @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+    void getOwnerBookingsAfterCursorTest() {
+        Booking latest = bookingRepository.findAllByBookerAndStatus(user2, BookingStatus.APPROVED, sort).get(0);
+        User owner = latest.getItem().getOwner();
+        User booker = userRepository.save(User.builder()
+                .name("booker")
+                .email("booker@yandex.ru")
+                .build());
+        Booking earlier = bookingRepository.save(Booking.builder()
+                .start(latest.getStart().minusDays(1))
+                .end(latest.getEnd().minusDays(1))
+                .item(latest.getItem())
+                .booker(booker)
+                .status(BookingStatus.WAITING)
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+
+        List<BookingExtendedDto> firstPage = bookingRepository.findOwnerBookingsAfter(owner.getId(), BookingState.ALL,
+                null, null, 1);
+        BookingExtendedDto last = firstPage.get(0);
+        List<BookingExtendedDto> secondPage = bookingRepository.findOwnerBookingsAfter(owner.getId(), BookingState.ALL,
+                last.getStart(), last.getId(), 1);
+        BookingExtendedDto secondLast = secondPage.get(0);
+        List<BookingExtendedDto> thirdPage = bookingRepository.findOwnerBookingsAfter(owner.getId(), BookingState.ALL,
+                secondLast.getStart(), secondLast.getId(), 1);
+
+        assertEquals(latest.getId(), last.getId());
+        assertEquals(earlier.getId(), secondLast.getId());
+        assertEquals(0, thirdPage.size());
+        assertEquals(1, bookingRepository.findBookerBookingsAfter(booker.getId(), BookingState.WAITING,
+                null, null, 10).size());
+    }
+
+    @Test
+    @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+    void updateWaitingStatusTest() {
+        Booking approved = bookingRepository.findAllByBookerAndStatus(user2, BookingStatus.APPROVED, sort).get(0);
+        User owner = approved.getItem().getOwner();
+        User booker = userRepository.save(User.builder()
+                .name("booker")
+                .email("booker@yandex.ru")
+                .build());
+        Booking waiting = bookingRepository.save(Booking.builder()
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .item(approved.getItem())
+                .booker(booker)
+                .status(BookingStatus.WAITING)
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+
+        int notOwned = bookingRepository.updateWaitingStatus(List.of(waiting.getId()), booker.getId(),
+                BookingStatus.APPROVED);
+        int updated = bookingRepository.updateWaitingStatus(List.of(waiting.getId(), approved.getId()),
+                owner.getId(), BookingStatus.REJECTED);
+        entityManager.clear();
+
+        assertEquals(0, notOwned);
+        assertEquals(1, updated);
+        assertEquals(BookingStatus.REJECTED, bookingRepository.findById(waiting.getId()).get().getStatus());
+        assertEquals(BookingStatus.APPROVED, bookingRepository.findById(approved.getId()).get().getStatus());
+    }
+
+    @Test
+    @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+    void findByIdFetchesItemAndBookerTest() {
+        Long bookingId = bookingRepository.findAllByBookerAndStatus(user2, BookingStatus.APPROVED, sort).get(0).getId();
+        entityManager.flush();
+        entityManager.clear();
+
+        Booking received = bookingRepository.findById(bookingId).get();
+
+        assertTrue(Hibernate.isInitialized(received.getItem()));
+        assertTrue(Hibernate.isInitialized(received.getBooker()));
+    }
+
+    @Test
+    @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+    void countBookingsTest() {
+        Booking approved = bookingRepository.findAllByBookerAndStatus(user2, BookingStatus.APPROVED, sort).get(0);
+        User owner = approved.getItem().getOwner();
+        User booker = userRepository.save(User.builder()
+                .name("booker")
+                .email("booker@yandex.ru")
+                .build());
+        LocalDateTime now = LocalDateTime.now();
+        bookingRepository.save(Booking.builder()
+                .start(now.plusDays(1))
+                .end(now.plusDays(2))
+                .item(approved.getItem())
+                .booker(booker)
+                .status(BookingStatus.WAITING)
+                .build());
+        bookingRepository.save(Booking.builder()
+                .start(now.minusDays(2))
+                .end(now.minusDays(1))
+                .item(approved.getItem())
+                .booker(booker)
+                .status(BookingStatus.REJECTED)
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+
+        BookingCountsDto bookerCounts = bookingRepository.countBookerBookings(booker.getId(), now);
+        BookingCountsDto ownerCounts = bookingRepository.countOwnerBookings(owner.getId(), now);
+        BookingCountsDto emptyCounts = bookingRepository.countBookerBookings(user1.getId(), now);
+
+        assertEquals(new BookingCountsDto(2L, 1L, 1L, 0L, 1L, 1L), bookerCounts);
+        assertEquals(3L, ownerCounts.getAll());
+        assertEquals(1L, ownerCounts.getCurrent());
+        assertEquals(new BookingCountsDto(0L, 0L, 0L, 0L, 0L, 0L), emptyCounts);
+    }
+
+    @Test
+    @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+    void lockItemsThenBookingsTest() {
+        Booking approved = bookingRepository.findAllByBookerAndStatus(user2, BookingStatus.APPROVED, sort).get(0);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Item> items = itemRepository.findAllByBookingIdInForUpdate(List.of(approved.getId()));
+        List<Booking> bookings = bookingRepository.findAllByIdInForUpdate(List.of(approved.getId()));
+
+        assertEquals(List.of(approved.getItem().getId()), items.stream()
+                .map(Item::getId)
+                .collect(Collectors.toList()));
+        assertEquals(approved.getId(), bookings.get(0).getId());
+        assertFalse(Hibernate.isInitialized(bookings.get(0).getBooker()));
+    }
+}
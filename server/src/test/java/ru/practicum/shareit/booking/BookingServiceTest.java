@@ -1,39 +1,54 @@
 package ru.practicum.shareit.booking;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingExtendedDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingDecisionOutcome;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingCountsCache;
 import ru.practicum.shareit.booking.service.BookingServiceImpl;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemAvailabilityCache;
+import ru.practicum.shareit.item.service.ItemBookingSummaryService;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.anyLong;
 import static org.mockito.Mockito.when;
 
@@ -48,6 +63,13 @@ class BookingServiceTest {
     private UserRepository userRepository;
     @Mock
     private ItemRepository itemRepository;
+    @Mock
+    private ItemAvailabilityCache availabilityCache;
+    @Mock
+    private ItemBookingSummaryService bookingSummaryService;
+    @Spy
+    private BookingCountsCache countsCache = new BookingCountsCache(new SimpleMeterRegistry(), 100,
+            Duration.ofSeconds(10));
     @InjectMocks
     private BookingServiceImpl bookingService;
 
@@ -104,8 +126,8 @@ class BookingServiceTest {
         assertEquals(booking.getStart(), result.getStart());
         assertEquals(booking.getEnd(), result.getEnd());
         assertEquals(booking.getStatus(), result.getStatus());
-        assertEquals(user2, result.getBooker());
-        assertEquals(item1, result.getItem());
+        assertEquals(user2.getId(), result.getBooker().getId());
+        assertEquals(item1.getName(), result.getItem().getName());
     }
 
     @Test
@@ -121,8 +143,8 @@ class BookingServiceTest {
         assertEquals(booking.getStart(), result.getStart());
         assertEquals(booking.getEnd(), result.getEnd());
         assertEquals(booking.getStatus(), result.getStatus());
-        assertEquals(user2, result.getBooker());
-        assertEquals(item1, result.getItem());
+        assertEquals(user2.getId(), result.getBooker().getId());
+        assertEquals(item1.getName(), result.getItem().getName());
     }
 
     @Test
@@ -208,6 +230,8 @@ class BookingServiceTest {
                 .thenReturn(Optional.of(user1));
         when(bookingRepository.findById(anyLong()))
                 .thenReturn(Optional.of(booking));
+        when(itemRepository.findByIdForUpdate(anyLong()))
+                .thenReturn(Optional.of(item1));
         when(bookingRepository.save(any()))
                 .thenReturn(Booking.builder()
                         .id(booking.getId())
@@ -218,9 +242,37 @@ class BookingServiceTest {
                         .status(BookingStatus.APPROVED)
                         .build());
 
-        Booking result = bookingService.approveOrRejectBooking(booking.getId(), user1.getId(), true);
+        BookingExtendedDto result = bookingService.approveOrRejectBooking(booking.getId(), user1.getId(), true);
 
         assertEquals(BookingStatus.APPROVED, result.getStatus());
+        Mockito.verify(bookingSummaryService).onBookingApproved(any(Booking.class));
+    }
+
+    @Test
+    void approveBookingOverlapTest() {
+        when(bookingRepository.findById(anyLong()))
+                .thenReturn(Optional.of(booking));
+        when(itemRepository.findByIdForUpdate(anyLong()))
+                .thenReturn(Optional.of(item1));
+        when(bookingRepository.existsApprovedOverlap(anyLong(), any(), any()))
+                .thenReturn(true);
+
+        assertThrows(ValidationException.class, () -> bookingService.approveOrRejectBooking(1L, 1L, true));
+        Mockito.verify(bookingRepository, Mockito.never()).save(any());
+    }
+
+    @Test
+    void createBookingOverlapTest() {
+        when(userRepository.findById(anyLong()))
+                .thenReturn(Optional.of(user2));
+        when(itemRepository.findById(anyLong()))
+                .thenReturn(Optional.of(item1));
+        when(bookingRepository.existsApprovedOverlap(anyLong(), any(), any()))
+                .thenReturn(true);
+
+        ValidationException e = assertThrows(ValidationException.class,
+                () -> bookingService.createBooking(bookingDto, 2L));
+        assertEquals("Item:1 is already booked for this time.", e.getMessage());
     }
 
     @Test
@@ -245,6 +297,31 @@ class BookingServiceTest {
         assertThrows(ValidationException.class, () -> bookingService.approveOrRejectBooking(1L, 1L, true));
     }
 
+    @Test
+    void approveBookingNotWaitingTest() {
+        when(bookingRepository.findById(anyLong()))
+                .thenReturn(Optional.of(booking));
+
+        for (BookingStatus status : List.of(BookingStatus.CANCELLED, BookingStatus.REJECTED)) {
+            booking.setStatus(status);
+
+            ValidationException e = assertThrows(ValidationException.class,
+                    () -> bookingService.approveOrRejectBooking(1L, 1L, true));
+            assertEquals("Booking 1 is not waiting for approval.", e.getMessage());
+        }
+        Mockito.verify(bookingRepository, Mockito.never()).save(any());
+    }
+
+    @Test
+    void createBookingsTooManyTest() {
+        List<BookingDto> bookingDtos = Collections.nCopies(101, bookingDto);
+
+        ValidationException e = assertThrows(ValidationException.class,
+                () -> bookingService.createBookings(bookingDtos, 2L));
+        assertEquals("At most 100 bookings can be created at once.", e.getMessage());
+        Mockito.verify(bookingRepository, Mockito.never()).saveAll(any());
+    }
+
     @Test
     void createBookingNotFoundBookerTest() {
         when(userRepository.findById(anyLong()))
@@ -271,14 +348,106 @@ class BookingServiceTest {
                 .thenAnswer(invocationOnMock -> invocationOnMock.getArgument(0));
 
         BookingExtendedDto result = bookingService.createBooking(bookingDto, 2L);
-        BookingExtendedDto bookingExtendedDto = BookingMapper.toBookingExtendedDto(BookingMapper.toBooking(bookingDto));
+        Booking expected = BookingMapper.toBooking(bookingDto);
+        expected.setItem(item1);
+        expected.setBooker(user2);
+        BookingExtendedDto bookingExtendedDto = BookingMapper.toBookingExtendedDto(expected);
 
         assertEquals(bookingExtendedDto.getId(), result.getId());
         assertEquals(bookingExtendedDto.getStart(), result.getStart());
         assertEquals(bookingExtendedDto.getEnd(), result.getEnd());
         assertEquals(bookingExtendedDto.getStatus(), result.getStatus());
-        assertEquals(user2, result.getBooker());
-        assertEquals(item1, result.getItem());
+        assertEquals(user2.getId(), result.getBooker().getId());
+        assertEquals(item1.getName(), result.getItem().getName());
+    }
+
+    @Test
+    void createBookingsBatchTest() {
+        bookingDto.setStart(LocalDateTime.now().plusHours(1));
+        bookingDto.setEnd(LocalDateTime.now().plusHours(2));
+        BookingDto missingItem = BookingDto.builder()
+                .start(bookingDto.getStart())
+                .end(bookingDto.getEnd())
+                .itemId(99L)
+                .build();
+        BookingDto wrongTime = BookingDto.builder()
+                .start(bookingDto.getEnd())
+                .end(bookingDto.getStart())
+                .itemId(item1.getId())
+                .build();
+        when(userRepository.findById(anyLong()))
+                .thenReturn(Optional.of(user2));
+        when(itemRepository.findAllById(any()))
+                .thenReturn(List.of(item1));
+        when(bookingRepository.saveAll(any()))
+                .thenAnswer(invocationOnMock -> invocationOnMock.getArgument(0));
+
+        List<BookingBatchResultDto> results = bookingService
+                .createBookings(List.of(bookingDto, missingItem, wrongTime), 2L);
+
+        assertEquals(3, results.size());
+        assertEquals(bookingDto.getStart(), results.get(0).getBooking().getStart());
+        assertEquals(BookingStatus.WAITING, results.get(0).getBooking().getStatus());
+        assertEquals("Item:99 is not exist.", results.get(1).getError());
+        assertEquals("Booking end must be after start.", results.get(2).getError());
+        Mockito.verify(itemRepository, Mockito.times(1)).findAllById(any());
+    }
+
+    @Test
+    void approveBookingsTest() {
+        Booking approved = Booking.builder()
+                .id(2L)
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .status(BookingStatus.APPROVED)
+                .booker(user2)
+                .item(item1)
+                .build();
+        Booking overlapping = Booking.builder()
+                .id(3L)
+                .start(booking.getStart().plusMinutes(30))
+                .end(booking.getEnd().plusMinutes(30))
+                .status(BookingStatus.WAITING)
+                .booker(user2)
+                .item(item1)
+                .build();
+        when(userRepository.findById(anyLong()))
+                .thenReturn(Optional.of(user1));
+        when(bookingRepository.findAllByIdInForUpdate(any()))
+                .thenReturn(List.of(booking, approved, overlapping));
+
+        List<BookingDecisionResultDto> results = bookingService
+                .approveOrRejectBookings(List.of(3L, 1L, 2L, 4L), user1.getId(), true);
+
+        assertEquals(List.of(3L, 1L, 2L, 4L), results.stream()
+                .map(BookingDecisionResultDto::getBookingId)
+                .collect(Collectors.toList()));
+        assertEquals(List.of(BookingDecisionOutcome.OVERLAP, BookingDecisionOutcome.APPROVED,
+                        BookingDecisionOutcome.NOT_WAITING, BookingDecisionOutcome.NOT_FOUND),
+                results.stream()
+                        .map(BookingDecisionResultDto::getOutcome)
+                        .collect(Collectors.toList()));
+        assertEquals(BookingStatus.WAITING, booking.getStatus());
+        InOrder locks = Mockito.inOrder(itemRepository, bookingRepository);
+        locks.verify(itemRepository).findAllByBookingIdInForUpdate(any());
+        locks.verify(bookingRepository).findAllByIdInForUpdate(any());
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .updateWaitingStatus(List.of(1L), user1.getId(), BookingStatus.APPROVED);
+        Mockito.verify(bookingRepository, Mockito.never()).save(any());
+    }
+
+    @Test
+    void rejectBookingsOfOtherOwnerTest() {
+        when(userRepository.findById(anyLong()))
+                .thenReturn(Optional.of(user2));
+        when(bookingRepository.findAllByIdInForUpdate(any()))
+                .thenReturn(List.of(booking));
+
+        List<BookingDecisionResultDto> results = bookingService
+                .approveOrRejectBookings(List.of(1L), user2.getId(), false);
+
+        assertEquals(BookingDecisionOutcome.NOT_FOUND, results.get(0).getOutcome());
+        Mockito.verify(bookingRepository, Mockito.never()).updateWaitingStatus(any(), any(), any());
     }
 
     @Test
@@ -318,11 +487,10 @@ class BookingServiceTest {
                 .thenReturn(Optional.of(user1));
         when(bookingRepository.findById(anyLong()))
                 .thenReturn(Optional.of(booking));
-        booking.setStatus(BookingStatus.REJECTED);
         when(bookingRepository.save(any()))
                 .thenReturn(booking);
 
-        Booking result = bookingService.approveOrRejectBooking(booking.getId(), user1.getId(), false);
+        BookingExtendedDto result = bookingService.approveOrRejectBooking(booking.getId(), user1.getId(), false);
 
         assertEquals(BookingStatus.REJECTED, result.getStatus());
     }
@@ -331,8 +499,8 @@ class BookingServiceTest {
     void getBookingsOfItemOwnerTest() {
         when(userRepository.findById(anyLong()))
                 .thenReturn(Optional.of(user1));
-        when(bookingRepository.findAllByItemOwner(any(), any(Pageable.class)))
-                .thenReturn(List.of(booking));
+        when(bookingRepository.findOwnerBookings(anyLong(), eq(BookingState.ALL), any(Pageable.class)))
+                .thenReturn(List.of(BookingMapper.toBookingExtendedDto(booking)));
 
         BookingExtendedDto result = bookingService.getItemOwnerBookings(1L, BookingState.ALL, 0, 10).get(0);
 
@@ -340,8 +508,8 @@ class BookingServiceTest {
         assertEquals(booking.getStart(), result.getStart());
         assertEquals(booking.getEnd(), result.getEnd());
         assertEquals(booking.getStatus(), result.getStatus());
-        assertEquals(user2, result.getBooker());
-        assertEquals(item1, result.getItem());
+        assertEquals(user2.getId(), result.getBooker().getId());
+        assertEquals(item1.getName(), result.getItem().getName());
     }
 
     @Test
@@ -349,8 +517,8 @@ class BookingServiceTest {
         when(userRepository.findById(anyLong()))
                 .thenReturn(Optional.of(user1));
         booking.setStart(LocalDateTime.now().minusHours(1));
-        when(bookingRepository.findAllByItemOwner(any(), any(Pageable.class)))
-                .thenReturn(List.of(booking));
+        when(bookingRepository.findOwnerBookings(anyLong(), eq(BookingState.CURRENT), any(Pageable.class)))
+                .thenReturn(List.of(BookingMapper.toBookingExtendedDto(booking)));
 
         BookingExtendedDto result = bookingService
                 .getItemOwnerBookings(1L, BookingState.CURRENT, 0, 10).get(0);
@@ -359,16 +527,16 @@ class BookingServiceTest {
         assertEquals(booking.getStart(), result.getStart());
         assertEquals(booking.getEnd(), result.getEnd());
         assertEquals(booking.getStatus(), result.getStatus());
-        assertEquals(user2, result.getBooker());
-        assertEquals(item1, result.getItem());
+        assertEquals(user2.getId(), result.getBooker().getId());
+        assertEquals(item1.getName(), result.getItem().getName());
     }
 
     @Test
     void getBookingsOfBookerByWaitingState() {
         when(userRepository.findById(anyLong()))
                 .thenReturn(Optional.of(user2));
-        when(bookingRepository.findAllByBookerAndStatus(any(), any(), any(Pageable.class)))
-                .thenReturn(List.of(booking));
+        when(bookingRepository.findBookerBookings(anyLong(), eq(BookingState.WAITING), any(Pageable.class)))
+                .thenReturn(List.of(BookingMapper.toBookingExtendedDto(booking)));
 
         BookingExtendedDto result = bookingService
                 .getUserBookings(2L, BookingState.WAITING, 0, 10).get(0);
@@ -377,16 +545,30 @@ class BookingServiceTest {
         assertEquals(booking.getStart(), result.getStart());
         assertEquals(booking.getEnd(), result.getEnd());
         assertEquals(booking.getStatus(), result.getStatus());
-        assertEquals(user2, result.getBooker());
-        assertEquals(item1, result.getItem());
+        assertEquals(user2.getId(), result.getBooker().getId());
+        assertEquals(item1.getName(), result.getItem().getName());
+    }
+
+    @Test
+    void getBookingsOfBookerByPastStateTest() {
+        when(userRepository.findById(anyLong()))
+                .thenReturn(Optional.of(user2));
+        booking.setEnd(LocalDateTime.now().minusHours(1));
+        when(bookingRepository.findBookerBookings(anyLong(), eq(BookingState.PAST), any(Pageable.class)))
+                .thenReturn(List.of(BookingMapper.toBookingExtendedDto(booking)));
+
+        List<BookingExtendedDto> result = bookingService.getUserBookings(2L, BookingState.PAST, 0, 10);
+
+        assertEquals(1, result.size());
+        assertEquals(booking.getId(), result.get(0).getId());
     }
 
     @Test
     void getBookingsOfBookerTest() {
         when(userRepository.findById(anyLong()))
                 .thenReturn(Optional.of(user2));
-        when(bookingRepository.findAllByBooker(any(), any(Pageable.class)))
-                .thenReturn(List.of(booking));
+        when(bookingRepository.findBookerBookings(anyLong(), eq(BookingState.ALL), any(Pageable.class)))
+                .thenReturn(List.of(BookingMapper.toBookingExtendedDto(booking)));
 
         BookingExtendedDto result = bookingService
                 .getUserBookings(2L, BookingState.ALL, 0, 10).get(0);
@@ -395,16 +577,16 @@ class BookingServiceTest {
         assertEquals(booking.getStart(), result.getStart());
         assertEquals(booking.getEnd(), result.getEnd());
         assertEquals(booking.getStatus(), result.getStatus());
-        assertEquals(user2, result.getBooker());
-        assertEquals(item1, result.getItem());
+        assertEquals(user2.getId(), result.getBooker().getId());
+        assertEquals(item1.getName(), result.getItem().getName());
     }
 
     @Test
     void getBookingsOfItemOwnerByWaitingStateTest() {
         when(userRepository.findById(anyLong()))
                 .thenReturn(Optional.of(user1));
-        when(bookingRepository.findAllByItemOwnerAndStatus(any(), any(), any(Pageable.class)))
-                .thenReturn(List.of(booking));
+        when(bookingRepository.findOwnerBookings(anyLong(), eq(BookingState.WAITING), any(Pageable.class)))
+                .thenReturn(List.of(BookingMapper.toBookingExtendedDto(booking)));
 
         BookingExtendedDto result = bookingService
                 .getItemOwnerBookings(1L, BookingState.WAITING, 0, 10).get(0);
@@ -413,7 +595,49 @@ class BookingServiceTest {
         assertEquals(booking.getStart(), result.getStart());
         assertEquals(booking.getEnd(), result.getEnd());
         assertEquals(booking.getStatus(), result.getStatus());
-        assertEquals(user2, result.getBooker());
-        assertEquals(item1, result.getItem());
+        assertEquals(user2.getId(), result.getBooker().getId());
+        assertEquals(item1.getName(), result.getItem().getName());
+    }
+
+    @Test
+    void getUserBookingCountsTest() {
+        BookingCountsDto counts = new BookingCountsDto(3L, 1L, 1L, 0L, 1L, 1L);
+        when(userRepository.findById(anyLong()))
+                .thenReturn(Optional.of(user2));
+        when(bookingRepository.countBookerBookings(eq(user2.getId()), any(LocalDateTime.class)))
+                .thenReturn(counts);
+
+        BookingCountsDto first = bookingService.getUserBookingCounts(user2.getId());
+        BookingCountsDto second = bookingService.getUserBookingCounts(user2.getId());
+
+        assertEquals(counts, first);
+        assertEquals(counts, second);
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .countBookerBookings(eq(user2.getId()), any(LocalDateTime.class));
+    }
+
+    @Test
+    void getItemOwnerBookingCountsReloadsAfterChangeTest() {
+        BookingCountsDto before = new BookingCountsDto(1L, 1L, 0L, 0L, 0L, 1L);
+        BookingCountsDto after = new BookingCountsDto(1L, 0L, 0L, 0L, 0L, 1L);
+        when(userRepository.findById(anyLong()))
+                .thenReturn(Optional.of(user1));
+        when(bookingRepository.countOwnerBookings(eq(user1.getId()), any(LocalDateTime.class)))
+                .thenReturn(before, after);
+
+        assertEquals(before, bookingService.getItemOwnerBookingCounts(user1.getId()));
+        TransactionSynchronizationManager.clearSynchronization();
+        countsCache.onBookingChanged(booking);
+        TransactionSynchronizationManager.initSynchronization();
+
+        assertEquals(after, bookingService.getItemOwnerBookingCounts(user1.getId()));
+    }
+
+    @Test
+    void getUserBookingCountsNotFoundTest() {
+        when(userRepository.findById(anyLong()))
+                .thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> bookingService.getUserBookingCounts(99L));
     }
-}
\ No newline at end of file
+}
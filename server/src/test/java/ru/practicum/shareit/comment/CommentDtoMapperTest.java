@@ -7,7 +7,9 @@ import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.comment.dto.CommentExtendedDto;
 import ru.practicum.shareit.comment.dto.CommentMapper;
 import ru.practicum.shareit.comment.model.Comment;
+import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dto.UserMapper;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
@@ -40,8 +42,8 @@ class CommentDtoMapperTest {
                 .id(1L)
                 .text(comment.getText())
                 .created(comment.getCreated())
-                .item(item)
-                .user(user)
+                .item(ItemMapper.toItemShortDto(item))
+                .user(UserMapper.toUserShortDto(user))
                 .authorName(user.getName())
                 .build();
 
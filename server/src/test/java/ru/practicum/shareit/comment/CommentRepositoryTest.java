@@ -4,6 +4,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.comment.dto.CommentShortDto;
+import ru.practicum.shareit.comment.dto.CommentShortView;
 import ru.practicum.shareit.comment.model.Comment;
 import ru.practicum.shareit.comment.repository.CommentRepository;
 import ru.practicum.shareit.item.model.Item;
@@ -12,8 +15,12 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 @DataJpaTest
 class CommentRepositoryTest {
@@ -23,19 +30,19 @@ class CommentRepositoryTest {
     private UserRepository userRepository;
     @Autowired
     private ItemRepository itemRepository;
-    private final User user = User.builder()
+    private User user = User.builder()
             .id(1L)
             .name("name")
             .email("ilya@mail.ru")
             .build();
-    private final Item item = Item.builder()
+    private Item item = Item.builder()
             .id(1L)
             .name("name")
             .description("description")
             .owner(user)
             .available(true)
             .build();
-    private final Comment comment = Comment.builder()
+    private Comment comment = Comment.builder()
             .id(1L)
             .text("text")
             .created(LocalDateTime.now())
@@ -46,19 +53,47 @@ class CommentRepositoryTest {
 
     @BeforeEach
     void setUp() {
-        userRepository.save(user);
-        itemRepository.save(item);
-        commentRepository.save(comment);
+        user = userRepository.save(user);
+        item.setOwner(user);
+        item = itemRepository.save(item);
+        comment.setItem(item);
+        comment.setUser(user);
+        comment = commentRepository.save(comment);
     }
 
     @Test
-    void getAllByItem() {
-        Comment received = commentRepository.findAllByItem(item).get(0);
+    void getAllByItemId() {
+        CommentShortDto received = commentRepository.findAllByItemId(item.getId(), PageRequest.of(0, 10)).get(0);
 
         assertEquals(comment.getId(), received.getId());
-        assertEquals(comment.getItem(), received.getItem());
+        assertEquals(item.getId(), received.getItemId());
         assertEquals(comment.getText(), received.getText());
         assertEquals(comment.getAuthorName(), received.getAuthorName());
-        assertEquals(comment.getUser(), received.getUser());
     }
-}
\ No newline at end of file
+
+    @Test
+    void findLatestByItemIdsTest() {
+        Comment second = commentRepository.save(Comment.builder()
+                .text("second")
+                .item(item)
+                .user(user)
+                .authorName(user.getName())
+                .build());
+        Comment third = commentRepository.save(Comment.builder()
+                .text("third")
+                .item(item)
+                .user(user)
+                .authorName(user.getName())
+                .build());
+
+        List<CommentShortView> latest = commentRepository.findLatestByItemIds(List.of(item.getId()), 2);
+
+        assertEquals(2, latest.size());
+        assertEquals(Set.of(second.getId(), third.getId()), latest.stream()
+                .map(CommentShortView::getId)
+                .collect(Collectors.toSet()));
+        assertEquals(item.getId(), latest.get(0).getItemId());
+        assertEquals(user.getName(), latest.get(0).getAuthorName());
+        assertNotNull(latest.get(0).getCreated());
+    }
+}
@@ -0,0 +1,79 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemAvailabilityCache;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ItemAvailabilityCacheTest {
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+    private final ItemAvailabilityCache cache = new ItemAvailabilityCache(bookingRepository);
+    private final Item item = Item.builder()
+            .id(1L)
+            .build();
+
+    @Test
+    void loadsOnceAndAppliesChangesTest() {
+        Booking waiting = Booking.builder()
+                .id(1L)
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .item(item)
+                .status(BookingStatus.WAITING)
+                .build();
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndAfter(anyLong(), any(), any()))
+                .thenReturn(List.of(waiting));
+
+        assertEquals(1, cache.getBusyIntervals(item.getId()).size());
+
+        cache.onBookingChanged(Booking.builder()
+                .id(2L)
+                .start(LocalDateTime.now().plusDays(3))
+                .end(LocalDateTime.now().plusDays(4))
+                .item(item)
+                .status(BookingStatus.WAITING)
+                .build());
+        waiting.setStatus(BookingStatus.REJECTED);
+        cache.onBookingChanged(waiting);
+
+        assertEquals(1, cache.getBusyIntervals(item.getId()).size());
+        verify(bookingRepository, times(1)).findAllByItemIdAndStatusInAndEndAfter(anyLong(), any(), any());
+    }
+
+    @Test
+    void changeOfOtherItemKeepsLoadedIntervalsTest() {
+        Item other = Item.builder()
+                .id(2L)
+                .build();
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndAfter(anyLong(), any(), any()))
+                .thenReturn(List.of());
+
+        cache.getBusyIntervals(item.getId());
+        cache.onBookingChanged(Booking.builder()
+                .id(3L)
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .item(other)
+                .status(BookingStatus.APPROVED)
+                .build());
+        cache.getBusyIntervals(item.getId());
+        cache.getBusyIntervals(other.getId());
+
+        verify(bookingRepository, times(1)).findAllByItemIdAndStatusInAndEndAfter(eq(item.getId()), any(), any());
+        verify(bookingRepository, times(1)).findAllByItemIdAndStatusInAndEndAfter(eq(other.getId()), any(), any());
+    }
+}
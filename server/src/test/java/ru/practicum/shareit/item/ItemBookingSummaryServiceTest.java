@@ -0,0 +1,197 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemExtendedDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+import ru.practicum.shareit.item.repository.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingSummaryService;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Transactional
+@SpringBootTest(classes = ShareItServer.class)
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ItemBookingSummaryServiceTest {
+    private final EntityManager entityManager;
+    private final ItemBookingSummaryService summaryService;
+    private final ItemBookingSummaryRepository summaryRepository;
+    private final BookingService bookingService;
+    private final ItemService itemService;
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .name("owner")
+                .email("summary-owner@mail.ru")
+                .build());
+        booker = userRepository.save(User.builder()
+                .name("booker")
+                .email("summary-booker@mail.ru")
+                .build());
+        item = itemRepository.save(Item.builder()
+                .name("item")
+                .description("description")
+                .available(true)
+                .owner(owner)
+                .build());
+    }
+
+    @Test
+    void approveBookingsUpdatesSummaryTest() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking past = saveBooking(now.minusDays(2), now.minusDays(1), BookingStatus.APPROVED);
+        Booking later = saveBooking(now.plusDays(3), now.plusDays(4), BookingStatus.WAITING);
+        Booking sooner = saveBooking(now.plusDays(1), now.plusDays(2), BookingStatus.WAITING);
+
+        bookingService.approveOrRejectBooking(later.getId(), owner.getId(), true);
+        bookingService.approveOrRejectBookings(List.of(sooner.getId()), owner.getId(), true);
+        entityManager.flush();
+        entityManager.clear();
+
+        ItemBookingSummary summary = summaryRepository.findById(item.getId()).get();
+        ItemExtendedDto listed = itemService.findItemsByOwner(owner.getId(), 0, 10).get(0);
+
+        assertEquals(past.getId(), summary.getLastBookingId());
+        assertEquals(sooner.getId(), summary.getNextBookingId());
+        assertEquals(past.getId(), listed.getLastBooking().getId());
+        assertEquals(sooner.getId(), listed.getNextBooking().getId());
+        assertEquals(booker.getId(), listed.getNextBooking().getBookerId());
+        assertEquals(BookingStatus.APPROVED, listed.getNextBooking().getStatus());
+    }
+
+    @Test
+    void refreshRollsStartedNextBookingTest() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking started = saveBooking(now.minusHours(1), now.plusHours(1), BookingStatus.APPROVED);
+        Booking future = saveBooking(now.plusDays(1), now.plusDays(2), BookingStatus.APPROVED);
+        ItemBookingSummary stale = ItemBookingSummary.builder()
+                .itemId(item.getId())
+                .build();
+        stale.setNext(started);
+        summaryRepository.save(stale);
+        entityManager.flush();
+        entityManager.clear();
+
+        ItemBookingSummary read = summaryService.getSummaries(List.of(item.getId())).get(item.getId());
+        entityManager.clear();
+        summaryService.refresh(List.of(item.getId()));
+        entityManager.flush();
+        entityManager.clear();
+        ItemBookingSummary rolled = summaryRepository.findById(item.getId()).get();
+
+        assertEquals(started.getId(), read.getLastBookingId());
+        assertEquals(future.getId(), read.getNextBookingId());
+        assertEquals(started.getId(), rolled.getLastBookingId());
+        assertEquals(future.getId(), rolled.getNextBookingId());
+    }
+
+    @Test
+    void staleAndMissingSummariesAreLoadedTogetherTest() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking started = saveBooking(now.minusHours(1), now.plusHours(1), BookingStatus.APPROVED);
+        ItemBookingSummary stale = ItemBookingSummary.builder()
+                .itemId(item.getId())
+                .build();
+        stale.setNext(started);
+        summaryRepository.save(stale);
+        Item other = itemRepository.save(Item.builder()
+                .name("other")
+                .description("other item")
+                .available(true)
+                .owner(owner)
+                .build());
+        Booking otherNext = bookingRepository.save(Booking.builder()
+                .start(now.plusDays(1))
+                .end(now.plusDays(2))
+                .item(other)
+                .booker(booker)
+                .status(BookingStatus.APPROVED)
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+
+        Map<Long, ItemBookingSummary> read = summaryService.getSummaries(List.of(item.getId(), other.getId()));
+        entityManager.clear();
+        summaryService.refresh(List.of(item.getId(), other.getId()));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(started.getId(), read.get(item.getId()).getLastBookingId());
+        assertNull(read.get(item.getId()).getNextBookingId());
+        assertEquals(otherNext.getId(), read.get(other.getId()).getNextBookingId());
+        assertEquals(started.getId(), summaryRepository.findById(item.getId()).get().getLastBookingId());
+        assertEquals(otherNext.getId(), summaryRepository.findById(other.getId()).get().getNextBookingId());
+    }
+
+    @Test
+    void missingSummaryIsLoadedFromBookingsTest() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking past = saveBooking(now.minusDays(2), now.minusDays(1), BookingStatus.APPROVED);
+        Booking next = saveBooking(now.plusDays(1), now.plusDays(2), BookingStatus.APPROVED);
+        saveBooking(now.plusHours(1), now.plusHours(2), BookingStatus.REJECTED);
+        entityManager.flush();
+        entityManager.clear();
+
+        ItemExtendedDto listed = itemService.findItemsByOwner(owner.getId(), 0, 10).get(0);
+        ItemExtendedDto found = itemService.findItemById(owner.getId(), item.getId());
+
+        assertTrue(summaryRepository.findById(item.getId()).isEmpty());
+        assertEquals(past.getId(), listed.getLastBooking().getId());
+        assertEquals(next.getId(), listed.getNextBooking().getId());
+        assertEquals(booker.getId(), listed.getNextBooking().getBookerId());
+        assertEquals(past.getId(), found.getLastBooking().getId());
+        assertEquals(next.getId(), found.getNextBooking().getId());
+    }
+
+    @Test
+    void itemWithoutApprovedBookingsHasNoSummaryTest() {
+        LocalDateTime now = LocalDateTime.now();
+        saveBooking(now.plusDays(1), now.plusDays(2), BookingStatus.WAITING);
+
+        ItemExtendedDto found = itemService.findItemById(owner.getId(), item.getId());
+
+        assertNull(found.getLastBooking());
+        assertNull(found.getNextBooking());
+    }
+
+    private Booking saveBooking(LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        return bookingRepository.save(Booking.builder()
+                .start(start)
+                .end(end)
+                .item(item)
+                .booker(booker)
+                .status(status)
+                .build());
+    }
+}
@@ -10,24 +10,36 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.comment.dto.CommentMapper;
+import ru.practicum.shareit.comment.dto.CommentShortDto;
 import ru.practicum.shareit.comment.model.Comment;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.controller.ItemController;
+import ru.practicum.shareit.item.dto.ItemBulkUpdateDto;
+import ru.practicum.shareit.item.dto.ItemChangeDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportErrorDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemSearchPageDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemImportFormat;
+import ru.practicum.shareit.item.service.ItemImportService;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.request.repository.RequestRepository;
 import ru.practicum.shareit.user.model.User;
 
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -41,6 +53,8 @@ class ItemControllerTest {
     private ItemService itemService;
     @MockBean
     private RequestRepository requestRepository;
+    @MockBean
+    private ItemImportService itemImportService;
     private User user;
     private ItemDto itemDto;
     private Item item;
@@ -174,6 +188,33 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.[0].available", is(item.getAvailable())));
     }
 
+    @Test
+    @SneakyThrows
+    void searchItemsAfterCursor() {
+        item = Item.builder()
+                .id(1L)
+                .name("name")
+                .description("desc")
+                .available(true)
+                .build();
+        when(itemService.findItemsByNameAfter("name", "", 1))
+                .thenReturn(ItemSearchPageDto.builder()
+                        .items(List.of(ItemMapper.toItemDto(item)))
+                        .nextCursor("next")
+                        .build());
+
+        mvc.perform(get("/items/search")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .param("text", "name")
+                        .param("from", "0")
+                        .param("size", "1")
+                        .param("after", "")
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "next"))
+                .andExpect(jsonPath("$.[0].id", is(item.getId()), Long.class));
+    }
+
     @Test
     @SneakyThrows
     void createComment() {
@@ -216,6 +257,79 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.user.id", is(comment.getUser().getId()), Long.class));
     }
 
+    @SneakyThrows
+    @Test
+    void findCommentsTest() {
+        CommentShortDto comment = new CommentShortDto(1L, 2L, "text", "name", LocalDateTime.now());
+        when(itemService.findComments(2L, 10, 5))
+                .thenReturn(List.of(comment));
+
+        mvc.perform(get("/items/2/comments?from=10&size=5")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(comment.getId()), Long.class))
+                .andExpect(jsonPath("$[0].text", is(comment.getText())))
+                .andExpect(jsonPath("$[0].authorName", is(comment.getAuthorName())))
+                .andExpect(jsonPath("$[0].itemId").doesNotExist());
+    }
+
+    @SneakyThrows
+    @Test
+    void updateItemsTest() {
+        item = Item.builder()
+                .id(1L)
+                .name("name")
+                .description("description")
+                .available(false)
+                .build();
+        ItemBulkUpdateDto bulkUpdateDto = ItemBulkUpdateDto.builder()
+                .items(List.of(ItemChangeDto.builder()
+                        .itemId(item.getId())
+                        .changes(ItemDto.builder()
+                                .available(false)
+                                .build())
+                        .build()))
+                .build();
+        when(itemService.updateItems(1L, bulkUpdateDto.getItems()))
+                .thenReturn(List.of(ItemMapper.toItemDto(item)));
+
+        mvc.perform(patch("/items/bulk")
+                        .content(objectMapper.writeValueAsString(bulkUpdateDto))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[0].id", is(item.getId()), Long.class))
+                .andExpect(jsonPath("$.[0].available", is(false)));
+        verify(itemService, never()).updateItem(anyLong(), anyLong(), any());
+    }
+
+    @SneakyThrows
+    @Test
+    void importItemsTest() {
+        when(itemImportService.importItems(eq(1L), any(), eq(ItemImportFormat.CSV)))
+                .thenReturn(ItemImportResultDto.builder()
+                        .processed(2)
+                        .imported(1)
+                        .failed(1)
+                        .errors(List.of(ItemImportErrorDto.builder()
+                                .line(3)
+                                .message("Available must be provided.")
+                                .build()))
+                        .build());
+
+        mvc.perform(post("/items/import")
+                        .content("name,description,available\nDrill,Cordless,true\nSaw,Hand saw,\n")
+                        .contentType("text/csv")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(1)))
+                .andExpect(jsonPath("$.errors[0].line", is(3)));
+    }
+
     @SneakyThrows
     @Test
     void updateItemValidationFailedTest() {
@@ -55,22 +55,4 @@ class ItemDtoMapperTest {
         assertEquals(expected, actual);
     }
 
-    @Test
-    void toUpdatedTest() {
-        ItemDto dto = ItemDto.builder()
-                .available(true)
-                .name("name")
-                .description("description")
-                .build();
-        Item expected = Item.builder()
-                .available(true)
-                .name(dto.getName())
-                .description(dto.getDescription())
-                .build();
-
-        Item actual = ItemMapper.toUpdatedItem(ItemMapper.toItemDto(expected), dto);
-
-        assertEquals(expected, actual);
-    }
-
 }
\ No newline at end of file
@@ -0,0 +1,73 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.item.dto.ItemExtendedDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the FULL_TEXT search against Postgres, e.g. the docker-compose database:
+ * SHAREIT_TEST_POSTGRES_URL=jdbc:postgresql://localhost:6541/shareit mvn test
+ */
+@Transactional
+@SpringBootTest(classes = ShareItServer.class, properties = {
+        "spring.datasource.driverClassName=org.postgresql.Driver",
+        "spring.datasource.url=${SHAREIT_TEST_POSTGRES_URL}",
+        "spring.datasource.username=${SHAREIT_TEST_POSTGRES_USER:shareit}",
+        "spring.datasource.password=${SHAREIT_TEST_POSTGRES_PASSWORD:shareit}",
+        "spring.sql.init.schema-locations=classpath:schema.sql,classpath:schema-postgres.sql,"
+                + "classpath:schema-search.sql",
+        "shareit.item.search.mode=FULL_TEXT"
+})
+@EnabledIfEnvironmentVariable(named = "SHAREIT_TEST_POSTGRES_URL", matches = ".+")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ItemFullTextSearchTest {
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final ItemService itemService;
+
+    @Test
+    void searchMatchesWordPrefixesTest() {
+        User owner = userRepository.save(User.builder()
+                .name("owner")
+                .email("fulltext.owner@example.com")
+                .build());
+        Item drill = itemRepository.saveAndFlush(Item.builder()
+                .name("Fulltextdrill")
+                .description("Cordless fulltextdrill with two batteries")
+                .available(true)
+                .owner(owner)
+                .build());
+        Item hammer = itemRepository.saveAndFlush(Item.builder()
+                .name("Fulltexthammer")
+                .description("Steel fulltexthammer")
+                .available(true)
+                .owner(owner)
+                .build());
+
+        assertEquals(List.of(drill.getId()), ids(itemService.findItemsByName("FULLTEXTDRI", 0, 10)));
+        assertEquals(List.of(drill.getId(), hammer.getId()), ids(itemService.findItemsByName("fulltext", 0, 10)));
+        assertEquals(List.of(drill.getId()), ids(itemService.findItemsByName("cordless fulltextdrill", 0, 10)));
+        assertEquals(List.of(), ids(itemService.findItemsByName("textdrill", 0, 10)));
+    }
+
+    private List<Long> ids(List<ItemExtendedDto> items) {
+        return items.stream()
+                .map(ItemExtendedDto::getId)
+                .collect(Collectors.toList());
+    }
+}
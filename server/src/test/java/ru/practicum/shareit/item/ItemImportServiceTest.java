@@ -0,0 +1,162 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemImportErrorDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemImportFormat;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemImportService;
+import ru.practicum.shareit.item.service.ItemSearchCache;
+import ru.practicum.shareit.item.service.ItemSearchIndex;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest
+@DirtiesContext
+class ItemImportServiceTest {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private final ItemSearchIndex searchIndex = Mockito.mock(ItemSearchIndex.class);
+    private final ItemSearchCache searchCache = Mockito.mock(ItemSearchCache.class);
+    private ObjectMapper objectMapper;
+    private ItemImportService importService;
+    private User owner;
+    private User partner;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .name("owner")
+                .email("import-owner@mail.ru")
+                .build());
+        partner = userRepository.save(User.builder()
+                .name("partner")
+                .email("import-partner@mail.ru")
+                .build());
+        objectMapper = new ObjectMapper()
+                .registerModule(new ParameterNamesModule(JsonCreator.Mode.DEFAULT));
+        importService = new ItemImportService(jdbcTemplate, transactionTemplate, objectMapper, searchIndex,
+                searchCache, 2, 10);
+    }
+
+    @Test
+    void importNdjsonInChunksWithRowErrorsTest() {
+        String body = "{\"name\":\"Drill\",\"description\":\"Cordless\",\"available\":true}\n" +
+                "{\"name\":\"\",\"description\":\"No name\",\"available\":true}\n" +
+                "\n" +
+                "{\"name\":\"Saw\",\"description\":\"Hand saw\",\"available\":false,\"owner\":" + partner.getId() + "}\n" +
+                "not json\n" +
+                "{\"name\":\"Ladder\",\"description\":\"Tall\",\"available\":true,\"owner\":999999}\n" +
+                "{\"name\":\"Hammer\",\"description\":\"Steel\",\"available\":true,\"requestId\":999999}\n";
+
+        ItemImportResultDto result = importService.importItems(owner.getId(), stream(body), ItemImportFormat.NDJSON);
+
+        assertEquals(6, result.getProcessed());
+        assertEquals(1, result.getImported());
+        assertEquals(5, result.getFailed());
+        assertEquals(List.of(2L, 4L, 5L, 6L, 7L), result.getErrors().stream()
+                .map(ItemImportErrorDto::getLine)
+                .collect(Collectors.toList()));
+        assertEquals(String.format("User:%d can not import items for User:%d.", owner.getId(), partner.getId()),
+                result.getErrors().get(1).getMessage());
+        assertEquals("Request:999999 does not exist.", result.getErrors().get(4).getMessage());
+        assertEquals(List.of("Drill"), names(owner));
+        assertEquals(List.of(), names(partner));
+        verify(searchCache).onItemChanged();
+        verify(searchIndex).refresh();
+    }
+
+    @Test
+    void importCsvWithQuotedValuesTest() {
+        String body = "name,description,available\n" +
+                "\"Drill, cordless\",\"Comes with \"\"two\"\" batteries\",true\n" +
+                "Saw,Hand saw\n";
+
+        ItemImportResultDto result = importService.importItems(owner.getId(), stream(body), ItemImportFormat.CSV);
+        Item drill = itemRepository.findAllByOwnerId(owner.getId(), PageRequest.of(0, 10)).get(0);
+
+        assertEquals(1, result.getImported());
+        assertEquals(1, result.getFailed());
+        assertEquals(3L, result.getErrors().get(0).getLine());
+        assertEquals("Drill, cordless", drill.getName());
+        assertEquals("Comes with \"two\" batteries", drill.getDescription());
+        assertEquals(0L, drill.getVersion());
+    }
+
+    @Test
+    void importKeepsReportWhenChunkFailsTest() {
+        TransactionTemplate failingTemplate = Mockito.spy(transactionTemplate);
+        Mockito.doCallRealMethod()
+                .doThrow(new CannotCreateTransactionException("Connection refused"))
+                .when(failingTemplate).execute(any());
+        importService = new ItemImportService(jdbcTemplate, failingTemplate, objectMapper, searchIndex,
+                searchCache, 2, 10);
+        String body = "{\"name\":\"Drill\",\"description\":\"Cordless\",\"available\":true}\n" +
+                "{\"name\":\"Saw\",\"description\":\"Hand saw\",\"available\":true}\n" +
+                "{\"name\":\"Ladder\",\"description\":\"Tall\",\"available\":true}\n" +
+                "{\"name\":\"Hammer\",\"description\":\"Steel\",\"available\":true}\n";
+
+        ItemImportResultDto result = importService.importItems(owner.getId(), stream(body), ItemImportFormat.NDJSON);
+
+        assertEquals(4, result.getProcessed());
+        assertEquals(2, result.getImported());
+        assertEquals(2, result.getFailed());
+        assertEquals(List.of(3L, 4L), result.getErrors().stream()
+                .map(ItemImportErrorDto::getLine)
+                .collect(Collectors.toList()));
+        assertEquals("Row was not imported: Connection refused", result.getErrors().get(0).getMessage());
+        assertEquals(List.of("Drill", "Saw"), names(owner));
+        verify(searchIndex).refresh();
+    }
+
+    @Test
+    void importByUnknownUserTest() {
+        String body = "{\"name\":\"Drill\",\"description\":\"Cordless\",\"available\":true}\n";
+
+        assertThrows(NotFoundException.class,
+                () -> importService.importItems(999999L, stream(body), ItemImportFormat.NDJSON));
+        verify(searchIndex, never()).refresh();
+    }
+
+    private List<String> names(User user) {
+        return itemRepository.findAllByOwnerId(user.getId(), PageRequest.of(0, 10)).stream()
+                .map(Item::getName)
+                .collect(Collectors.toList());
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,159 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.comment.dto.CommentShortDto;
+import ru.practicum.shareit.comment.model.Comment;
+import ru.practicum.shareit.comment.repository.CommentRepository;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemExtendedDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Transactional
+@SpringBootTest(classes = ShareItServer.class)
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ItemOwnerListingQueryTest {
+    private final EntityManager entityManager;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ItemService itemService;
+    private final ItemRepository itemRepository;
+    private final CommentRepository commentRepository;
+    private final UserRepository userRepository;
+
+    private User owner;
+    private User author;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .name("owner")
+                .email("listing-owner@mail.ru")
+                .build());
+        author = userRepository.save(User.builder()
+                .name("author")
+                .email("listing-author@mail.ru")
+                .build());
+    }
+
+    @Test
+    void statementCountDoesNotGrowWithItemsTest() {
+        addItemsWithComments(2, 12);
+        long fewItems = countStatements();
+
+        addItemsWithComments(8, 12);
+        long manyItems = countStatements();
+
+        assertEquals(fewItems, manyItems);
+    }
+
+    @Test
+    void commentsAreCappedPerItemWithTotalCountTest() {
+        addItemsWithComments(2, 12);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<ItemExtendedDto> items = itemService.findItemsByOwner(owner.getId(), 0, 10);
+
+        assertEquals(2, items.size());
+        for (ItemExtendedDto item : items) {
+            assertEquals(10, item.getComments().size());
+            assertEquals(12L, item.getCommentsCount());
+            assertEquals("comment 11", item.getComments().get(0).getText());
+            assertEquals(author.getName(), item.getComments().get(0).getAuthorName());
+        }
+    }
+
+    @Test
+    void itemViewCapsCommentsAndPagesTheRestTest() {
+        addItemsWithComments(1, 12);
+        entityManager.flush();
+        entityManager.clear();
+        Long itemId = itemService.findItemsByOwner(owner.getId(), 0, 10).get(0).getId();
+
+        ItemExtendedDto item = itemService.findItemById(author.getId(), itemId);
+        List<String> rest = itemService.findComments(itemId, 10, 10).stream()
+                .map(CommentShortDto::getText)
+                .collect(Collectors.toList());
+
+        assertEquals(10, item.getComments().size());
+        assertEquals(12L, item.getCommentsCount());
+        assertEquals("comment 11", item.getComments().get(0).getText());
+        assertEquals(List.of("comment 1", "comment 0"), rest);
+        assertThrows(NotFoundException.class, () -> itemService.findComments(-1L, 0, 10));
+    }
+
+    @Test
+    void ownerItemsArePagedByIdTest() {
+        addItemsWithComments(5, 0);
+        entityManager.flush();
+        entityManager.clear();
+        List<Long> all = itemService.findItemsByOwner(owner.getId(), 0, 10).stream()
+                .map(ItemExtendedDto::getId)
+                .collect(Collectors.toList());
+
+        List<Long> page = itemService.findItemsByOwner(owner.getId(), 2, 2).stream()
+                .map(ItemExtendedDto::getId)
+                .collect(Collectors.toList());
+
+        assertEquals(5, all.size());
+        assertEquals(all.stream().sorted().collect(Collectors.toList()), all);
+        assertEquals(all.subList(2, 4), page);
+    }
+
+    private long countStatements() {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        itemService.findItemsByOwner(owner.getId(), 0, 100);
+
+        long statements = statistics.getPrepareStatementCount();
+        statistics.setStatisticsEnabled(false);
+        return statements;
+    }
+
+    private void addItemsWithComments(int items, int commentsPerItem) {
+        LocalDateTime created = LocalDateTime.now().minusDays(1);
+        for (int i = 0; i < items; i++) {
+            Item item = itemRepository.save(Item.builder()
+                    .name("item")
+                    .description("description")
+                    .available(true)
+                    .owner(owner)
+                    .build());
+            for (int j = 0; j < commentsPerItem; j++) {
+                commentRepository.save(Comment.builder()
+                        .text("comment " + j)
+                        .item(item)
+                        .user(author)
+                        .authorName(author.getName())
+                        .created(created.plusMinutes(j))
+                        .build());
+            }
+        }
+    }
+}
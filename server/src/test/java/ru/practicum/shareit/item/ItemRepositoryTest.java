@@ -5,6 +5,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.annotation.DirtiesContext;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
@@ -15,8 +16,12 @@ import ru.practicum.shareit.user.repository.UserRepository;
 
 import javax.persistence.EntityManager;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
 class ItemRepositoryTest {
@@ -73,7 +78,7 @@ class ItemRepositoryTest {
     @Test
     @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
     void getByItemOwnerTest() {
-        Item received = itemRepository.findAllByOwnerOrderByOwner(user2).get(0);
+        Item received = itemRepository.findAllByOwnerId(user2.getId(), PageRequest.of(0, 10)).get(0);
 
         assertEquals(item.getId(), received.getId());
         assertEquals(item.getName(), received.getName());
@@ -84,7 +89,7 @@ class ItemRepositoryTest {
     @Test
     @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
     void getByTextInNameTest() {
-        Item received = itemRepository.findByNameContainingIgnoreCase("item").get(0);
+        Item received = itemRepository.findByNameContainingIgnoreCase("item", PageRequest.of(0, 10)).get(0);
 
         assertEquals(item.getId(), received.getId());
         assertEquals(item.getName(), received.getName());
@@ -116,7 +121,7 @@ class ItemRepositoryTest {
     @Test
     @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
     void getByTextInDescriptionTest() {
-        Item received = itemRepository.findByNameContainingIgnoreCase("desc").get(0);
+        Item received = itemRepository.findByNameContainingIgnoreCase("desc", PageRequest.of(0, 10)).get(0);
 
         assertEquals(item.getId(), received.getId());
         assertEquals(item.getName(), received.getName());
@@ -124,4 +129,57 @@ class ItemRepositoryTest {
         assertEquals(item.getAvailable(), received.getAvailable());
     }
 
-}
\ No newline at end of file
+
+    @Test
+    @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+    void getByTextPagedTest() {
+        User owner = itemRepository.findByNameContainingIgnoreCase("item", PageRequest.of(0, 10)).get(0).getOwner();
+        Item second = itemRepository.save(Item.builder()
+                .name("second item")
+                .description("description")
+                .available(true)
+                .owner(owner)
+                .build());
+        Item third = itemRepository.save(Item.builder()
+                .name("third item")
+                .description("description")
+                .available(true)
+                .owner(owner)
+                .build());
+        itemRepository.save(Item.builder()
+                .name("hidden item")
+                .description("description")
+                .available(false)
+                .owner(owner)
+                .build());
+
+        List<Item> firstPage = itemRepository.findByNameContainingIgnoreCase("item", PageRequest.of(0, 2));
+        List<Item> secondPage = itemRepository.findByNameContainingIgnoreCase("item", PageRequest.of(1, 2));
+        List<Item> afterSecond = itemRepository.findByNameContainingIgnoreCaseAfter("item", second.getId(),
+                PageRequest.of(0, 2));
+
+        assertEquals(2, firstPage.size());
+        assertEquals(second.getId(), firstPage.get(1).getId());
+        assertEquals(List.of(third.getId()), secondPage.stream().map(Item::getId).collect(Collectors.toList()));
+        assertEquals(List.of(third.getId()), afterSecond.stream().map(Item::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+    void updateChangesKeepsUntouchedFieldsTest() {
+        Item saved = itemRepository.findAllByOwnerId(user2.getId(), PageRequest.of(0, 10)).get(0);
+        entityManager.flush();
+
+        int updated = itemRepository.updateChanges(saved.getId(), "renamed", null, false);
+        Item received = itemRepository.findById(saved.getId()).get();
+
+        assertEquals(1, updated);
+        assertEquals("renamed", received.getName());
+        assertEquals(item.getDescription(), received.getDescription());
+        assertEquals(false, received.getAvailable());
+        assertEquals(saved.getRequest().getId(), received.getRequest().getId());
+        assertEquals(saved.getVersion() + 1, received.getVersion());
+        assertTrue(itemRepository.existsByIdAndOwnerId(saved.getId(), user2.getId()));
+        assertFalse(itemRepository.existsByIdAndOwnerId(saved.getId(), user1.getId()));
+    }
+}
@@ -0,0 +1,74 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.service.ItemSearchCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ItemSearchCacheTest {
+    private final ItemSearchCache cache = new ItemSearchCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void identicalQueriesCoalesceTest() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<long[]>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return cache.get("drill", PageRequest.of(0, 10), this::slowLoad);
+                }));
+            }
+            start.countDown();
+            for (Future<long[]> result : results) {
+                assertArrayEquals(new long[]{3L, 1L}, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void itemChangeStartsNewGenerationTest() {
+        cache.get("drill", PageRequest.of(0, 10), this::load);
+        cache.get("drill", PageRequest.of(1, 10), this::load);
+        cache.get("drill", PageRequest.of(0, 10), this::load);
+        assertEquals(2, loads.get());
+
+        cache.onItemChanged();
+        cache.get("drill", PageRequest.of(0, 10), this::load);
+
+        assertEquals(3, loads.get());
+    }
+
+    private long[] slowLoad() {
+        try {
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return load();
+    }
+
+    private long[] load() {
+        loads.incrementAndGet();
+        return new long[]{3L, 1L};
+    }
+}
@@ -0,0 +1,161 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.dto.ItemSearchHit;
+import ru.practicum.shareit.item.dto.ItemVersionDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSearchMode;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemSearchIndex;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemSearchIndexTest {
+    @Mock
+    private ItemRepository itemRepository;
+    @TempDir
+    Path directory;
+
+    private final Item drill = item(1L, "Drill", "Cordless drill with two batteries", true);
+    private final Item hammer = item(2L, "Hammer", "Steel hammer", true);
+    private final Item oldDrill = item(3L, "Old drill", "Loud and heavy", true);
+
+    @Test
+    void searchRanksByBm25AndFiltersAvailabilityTest() {
+        ItemSearchIndex index = loadedIndex(null, drill, hammer, oldDrill);
+
+        assertTrue(index.isReady());
+        assertEquals(List.of(1L, 3L), ids(index.search("dri")));
+        assertEquals(List.of(), ids(index.search("rill")));
+        assertEquals(List.of(3L), ids(index.search("drill loud")));
+        assertEquals(List.of(), ids(index.search("drill steel")));
+        assertEquals(List.of(), ids(index.search("?!")));
+
+        oldDrill.setAvailable(false);
+        oldDrill.setVersion(1);
+        index.onItemChanged(oldDrill);
+
+        assertEquals(List.of(1L), ids(index.search("drill")));
+    }
+
+    @Test
+    void searchKeepsTopHitsAfterCursorTest() {
+        Item cordless = item(4L, "Cordless drill", "Drill", true);
+        ItemSearchIndex index = loadedIndex(null, drill, hammer, oldDrill, cordless);
+        List<ItemSearchHit> all = index.search("drill");
+
+        List<ItemSearchHit> first = index.search("drill", null, null, 2);
+        ItemSearchHit last = first.get(1);
+        List<ItemSearchHit> rest = index.search("drill", last.getRank(), last.getId(), 10);
+
+        assertEquals(3, all.size());
+        assertEquals(ids(all).subList(0, 2), ids(first));
+        assertEquals(ids(all).subList(2, 3), ids(rest));
+        assertTrue(all.get(0).getRank() >= all.get(1).getRank());
+        assertEquals(List.of(), ids(index.search("drill", null, null, 0)));
+    }
+
+    @Test
+    void updateReplacesOldTermsTest() {
+        ItemSearchIndex index = loadedIndex(null, drill, hammer);
+
+        hammer.setName("Mallet");
+        hammer.setDescription("Rubber mallet");
+        hammer.setVersion(1);
+        index.onItemChanged(hammer);
+        Item outdated = item(2L, "Hammer", "Steel hammer", true);
+        index.onItemChanged(outdated);
+
+        assertEquals(List.of(), ids(index.search("hammer")));
+        assertEquals(List.of(2L), ids(index.search("rubber")));
+    }
+
+    @Test
+    void snapshotSkipsReindexOfUnchangedItemsTest() {
+        Path snapshot = directory.resolve("items.idx");
+        ItemSearchIndex first = loadedIndex(snapshot, drill, hammer, oldDrill);
+        first.flush();
+        assertTrue(Files.exists(snapshot));
+
+        when(itemRepository.findAllVersions())
+                .thenReturn(List.of(new ItemVersionDto(1L, 0), new ItemVersionDto(3L, 0)));
+        ItemSearchIndex restarted = new ItemSearchIndex(itemRepository, ItemSearchMode.INDEX, snapshot.toString());
+        restarted.load();
+
+        verify(itemRepository, times(1)).findAllById(any());
+        assertEquals(List.of(1L, 3L), ids(restarted.search("drill")));
+        assertEquals(List.of(), ids(restarted.search("hammer")));
+        assertFalse(ids(restarted.search("batteries")).isEmpty());
+    }
+
+    @Test
+    void failedFlushIsRetriedTest() throws Exception {
+        Path snapshot = directory.resolve("missing").resolve("items.idx");
+        ItemSearchIndex index = loadedIndex(snapshot, drill, hammer);
+
+        index.flush();
+        assertFalse(Files.exists(snapshot));
+
+        Files.createDirectories(snapshot.getParent());
+        index.flush();
+        assertTrue(Files.exists(snapshot));
+    }
+
+    @Test
+    void disabledIndexIgnoresChangesTest() {
+        ItemSearchIndex index = new ItemSearchIndex(itemRepository, ItemSearchMode.LIKE, "");
+
+        index.load();
+        index.onItemChanged(drill);
+
+        assertFalse(index.isReady());
+        verify(itemRepository, never()).findAllVersions();
+        verify(itemRepository, never()).findAllById(any());
+    }
+
+    private ItemSearchIndex loadedIndex(Path snapshot, Item... items) {
+        List<Item> all = List.of(items);
+        when(itemRepository.findAllVersions())
+                .thenReturn(all.stream()
+                        .map(item -> new ItemVersionDto(item.getId(), item.getVersion()))
+                        .collect(Collectors.toList()));
+        when(itemRepository.findAllById(any()))
+                .thenReturn(all);
+        ItemSearchIndex index = new ItemSearchIndex(itemRepository, ItemSearchMode.INDEX,
+                snapshot == null ? "" : snapshot.toString());
+        index.load();
+        return index;
+    }
+
+    private static Item item(Long id, String name, String description, boolean available) {
+        return Item.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .available(available)
+                .build();
+    }
+
+    private static List<Long> ids(List<ItemSearchHit> hits) {
+        return hits.stream()
+                .map(ItemSearchHit::getId)
+                .collect(Collectors.toList());
+    }
+}
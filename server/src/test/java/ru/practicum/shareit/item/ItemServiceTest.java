@@ -1,14 +1,16 @@
 package ru.practicum.shareit.item;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.ShareItServer;
 import ru.practicum.shareit.booking.dto.BookingMapper;
@@ -20,19 +22,39 @@ import ru.practicum.shareit.comment.dto.CommentMapper;
 import ru.practicum.shareit.comment.model.Comment;
 import ru.practicum.shareit.comment.repository.CommentRepository;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemChangeDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemExtendedDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemSearchHit;
+import ru.practicum.shareit.item.dto.ItemSearchPageDto;
+import ru.practicum.shareit.item.model.AvailabilityGranularity;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+import ru.practicum.shareit.item.model.ItemSearchMode;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemAvailabilityCache;
+import ru.practicum.shareit.item.service.ItemBookingSummaryService;
+import ru.practicum.shareit.item.service.ItemSearchCache;
+import ru.practicum.shareit.item.service.ItemSearchCursor;
+import ru.practicum.shareit.item.service.ItemSearchIndex;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.item.service.ItemViewCache;
+import ru.practicum.shareit.request.repository.RequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -56,12 +78,34 @@ class ItemServiceTest {
     @Mock
     private CommentRepository commentRepository;
 
-    @InjectMocks
+    @Mock
+    private ItemAvailabilityCache availabilityCache;
+
+    @Mock
+    private ItemBookingSummaryService bookingSummaryService;
+
+    @Mock
+    private ItemSearchIndex searchIndex;
+
+    @Spy
+    private ItemViewCache itemViewCache = new ItemViewCache(new SimpleMeterRegistry(), 100);
+
+    @Spy
+    private ItemSearchCache searchCache = new ItemSearchCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+
+    @Mock
+    private RequestRepository requestRepository;
+
     private ItemServiceImpl itemService;
     private Item item;
     private ItemDto itemDto;
     private User user;
 
+    @BeforeEach
+    void setUp() {
+        itemService = newItemService(ItemSearchMode.FULL_TEXT);
+    }
+
     @Test
     void getItemByIdTest() {
         user = User.builder()
@@ -83,41 +127,13 @@ class ItemServiceTest {
 
         ItemExtendedDto expected = ItemMapper.toItemDto(item);
         expected.setComments(List.of());
+        expected.setCommentsCount(0L);
 
         ItemExtendedDto actual = itemService.findItemById(item.getId(), user.getId());
 
         assertEquals(expected, actual);
     }
 
-    @Test
-    void updateItemTest() {
-        user = User.builder()
-                .id(1L)
-                .name("username")
-                .email("asd@mail.ru")
-                .build();
-        item = Item.builder()
-                .id(1L)
-                .name("itemname")
-                .description("description")
-                .available(true)
-                .owner(user)
-                .build();
-        ItemDto updated = ItemDto.builder()
-                .id(1L)
-                .name("updated")
-                .description("desc")
-                .available(false)
-                .owner(user.getId())
-                .build();
-        when(itemRepository.save(ItemMapper.toItem(updated)))
-                .thenReturn(ItemMapper.toItem(updated));
-
-        ItemExtendedDto itemExtendedDtoTest = ItemMapper.toItemDto(item);
-
-        assertEquals(ItemMapper.toItem(updated), ItemMapper.toUpdatedItem(itemExtendedDtoTest, updated));
-    }
-
     @Test
     void getAllByOwnerTest() {
         user = User.builder()
@@ -145,15 +161,20 @@ class ItemServiceTest {
                 .item(item)
                 .status(BookingStatus.APPROVED)
                 .build();
-        when(itemRepository.findAllByOwnerOrderByOwner(any()))
+        when(itemRepository.findAllByOwnerId(anyLong(), any(Pageable.class)))
                 .thenReturn(List.of(item));
-        when(bookingRepository.findAllByItemIn(any(), (Pageable) any()))
-                .thenReturn(List.of(booking));
+        ItemBookingSummary summary = ItemBookingSummary.builder()
+                .itemId(item.getId())
+                .build();
+        summary.setLast(booking);
+        when(bookingSummaryService.getSummaries(List.of(item.getId())))
+                .thenReturn(Map.of(item.getId(), summary));
         when(userRepository.findById(anyLong()))
                 .thenReturn(Optional.of(user));
 
         List<ItemExtendedDto> expected = List.of(ItemMapper.toItemDto(item));
         expected.get(0).setComments(List.of());
+        expected.get(0).setCommentsCount(0L);
         expected.get(0).setLastBooking(BookingMapper.toBookingItemDto(booking));
 
         List<ItemExtendedDto> actual = itemService.findItemsByOwner(1L, 0, 1);
@@ -161,8 +182,32 @@ class ItemServiceTest {
         assertIterableEquals(expected, actual);
     }
 
+    @Test
+    void getByTextCachedTest() {
+        itemService = newItemService(ItemSearchMode.LIKE);
+        item = Item.builder()
+                .id(1L)
+                .name("itemname")
+                .description("description")
+                .available(true)
+                .build();
+        when(itemRepository.findByNameContainingIgnoreCase("ite", PageRequest.of(0, 10)))
+                .thenReturn(List.of(item));
+        when(itemRepository.findAllById(List.of(item.getId())))
+                .thenReturn(List.of(item));
+
+        List<ItemExtendedDto> first = itemService.findItemsByName("  ITE ", 0, 10);
+        List<ItemExtendedDto> second = itemService.findItemsByName("ite", 0, 10);
+
+        assertIterableEquals(List.of(ItemMapper.toItemDto(item)), first);
+        assertIterableEquals(first, second);
+        verify(itemRepository, times(1)).findByNameContainingIgnoreCase("ite", PageRequest.of(0, 10));
+        verify(itemRepository, times(1)).findAllById(List.of(item.getId()));
+    }
+
     @Test
     void getByText() {
+        itemService = newItemService(ItemSearchMode.LIKE);
         item = Item.builder()
                 .id(1L)
                 .name("itemname")
@@ -174,7 +219,7 @@ class ItemServiceTest {
                         .email("asd@mail.com")
                         .build())
                 .build();
-        when(itemRepository.findByNameContainingIgnoreCase(any(String.class)))
+        when(itemRepository.findByNameContainingIgnoreCase(any(String.class), any(Pageable.class)))
                 .thenReturn(List.of(item));
         List<Item> expected = List.of(item);
 
@@ -185,6 +230,84 @@ class ItemServiceTest {
                 .collect(Collectors.toList()), actual);
     }
 
+    @Test
+    void getByTextFullTextTest() {
+        item = Item.builder()
+                .id(1L)
+                .name("itemname")
+                .description("description")
+                .available(true)
+                .build();
+        ItemSearchHit hit = mock(ItemSearchHit.class);
+        when(hit.getId())
+                .thenReturn(item.getId());
+        when(hit.getRank())
+                .thenReturn(0.5f);
+        when(itemRepository.searchAvailableByText("ite:* & desc:*", PageRequest.of(0, 1)))
+                .thenReturn(List.of(hit));
+        when(itemRepository.findAllById(List.of(item.getId())))
+                .thenReturn(List.of(item));
+
+        ItemSearchPageDto actual = itemService.findItemsByNameAfter("  Ite, DESC! ", "", 1);
+        List<ItemExtendedDto> punctuationOnly = itemService.findItemsByName("!?", 0, 1);
+        ItemSearchCursor next = ItemSearchCursor.decode(actual.getNextCursor());
+
+        assertIterableEquals(List.of(ItemMapper.toItemDto(item)), actual.getItems());
+        assertEquals(0.5f, next.getRank());
+        assertEquals(item.getId(), next.getId());
+        assertTrue(punctuationOnly.isEmpty());
+        verify(itemRepository, never()).findByNameContainingIgnoreCase(any(), any());
+    }
+
+    @Test
+    void getByTextFromIndexTest() {
+        Item first = Item.builder()
+                .id(1L)
+                .name("drill")
+                .description("drill")
+                .available(true)
+                .build();
+        Item second = Item.builder()
+                .id(2L)
+                .name("drill")
+                .description("old")
+                .available(true)
+                .build();
+        Item unavailable = Item.builder()
+                .id(3L)
+                .name("drill")
+                .description("broken")
+                .available(false)
+                .build();
+        itemService = newItemService(ItemSearchMode.INDEX);
+        when(searchIndex.isReady())
+                .thenReturn(true);
+        List<ItemSearchHit> firstHits = List.of(hit(2L, 3f), hit(3L, 2f));
+        List<ItemSearchHit> nextHits = List.of(hit(1L, 1f));
+        when(searchIndex.search("drill", null, null, 2))
+                .thenReturn(firstHits);
+        when(searchIndex.search("drill", 2f, 3L, 2))
+                .thenReturn(nextHits);
+        when(itemRepository.findAllById(List.of(2L, 3L)))
+                .thenReturn(List.of(second, unavailable));
+        when(itemRepository.findAllById(List.of(1L)))
+                .thenReturn(List.of(first));
+
+        List<ItemExtendedDto> firstPage = itemService.findItemsByName("drill", 0, 2);
+        ItemSearchPageDto afterSecond = itemService.findItemsByNameAfter("drill",
+                new ItemSearchCursor(2f, 3L).encode(), 2);
+
+        assertIterableEquals(List.of(ItemMapper.toItemDto(second)), firstPage);
+        assertIterableEquals(List.of(ItemMapper.toItemDto(first)), afterSecond.getItems());
+        assertNull(afterSecond.getNextCursor());
+        verify(itemRepository, never()).findByNameContainingIgnoreCase(any(), any());
+    }
+
+    @Test
+    void getByTextWrongCursorTest() {
+        assertThrows(ValidationException.class, () -> itemService.findItemsByNameAfter("drill", "%%%", 10));
+    }
+
     @Test
     void getItemNotFoundTest() {
         item = Item.builder()
@@ -246,6 +369,85 @@ class ItemServiceTest {
         assertThrows(NotFoundException.class, () -> itemService.findItemById(user.getId(), item.getId() + 1));
     }
 
+    @Test
+    void updateItemPartiallyTest() {
+        user = User.builder()
+                .id(1L)
+                .name("username")
+                .email("asd@mail.ru")
+                .build();
+        item = Item.builder()
+                .id(1L)
+                .name("updated")
+                .description("description")
+                .available(true)
+                .owner(user)
+                .build();
+        ItemDto changes = ItemDto.builder()
+                .name("updated")
+                .build();
+        when(itemRepository.existsByIdAndOwnerId(item.getId(), user.getId()))
+                .thenReturn(true);
+        when(itemRepository.findById(item.getId()))
+                .thenReturn(Optional.of(item));
+
+        ItemExtendedDto actual = itemService.updateItem(user.getId(), item.getId(), changes);
+
+        assertEquals(ItemMapper.toItemDto(item), actual);
+        verify(itemRepository).updateChanges(item.getId(), "updated", null, null);
+        verify(itemRepository, never()).save(any());
+        verify(searchIndex).onItemChanged(item);
+    }
+
+    @Test
+    void updateItemsGroupsIdenticalChangesTest() {
+        User owner = User.builder()
+                .id(1L)
+                .build();
+        List<Item> items = List.of(
+                Item.builder().id(1L).name("first").available(false).owner(owner).build(),
+                Item.builder().id(2L).name("second").available(false).owner(owner).build(),
+                Item.builder().id(3L).name("renamed").available(true).owner(owner).build());
+        ItemDto disable = ItemDto.builder()
+                .available(false)
+                .build();
+        List<ItemChangeDto> changes = List.of(
+                ItemChangeDto.builder().itemId(1L).changes(disable).build(),
+                ItemChangeDto.builder().itemId(3L).changes(ItemDto.builder().name("renamed").build()).build(),
+                ItemChangeDto.builder().itemId(2L).changes(ItemDto.builder().available(false).build()).build());
+        when(itemRepository.findOwnedIds(Set.of(1L, 3L, 2L), owner.getId()))
+                .thenReturn(List.of(1L, 2L, 3L));
+        when(itemRepository.findAllById(List.of(1L, 3L, 2L)))
+                .thenReturn(items);
+
+        List<ItemExtendedDto> actual = itemService.updateItems(owner.getId(), changes);
+
+        assertEquals(List.of(1L, 3L, 2L), actual.stream()
+                .map(ItemExtendedDto::getId)
+                .collect(Collectors.toList()));
+        verify(itemRepository).updateChanges(List.of(1L, 2L), null, null, false);
+        verify(itemRepository).updateChanges(List.of(3L), "renamed", null, null);
+        verify(searchIndex).onItemsChanged(any());
+        verify(itemViewCache).evictAll(List.of(1L, 3L, 2L));
+    }
+
+    @Test
+    void updateItemsRejectsForeignAndDuplicateItemsTest() {
+        ItemDto disable = ItemDto.builder()
+                .available(false)
+                .build();
+        List<ItemChangeDto> foreign = List.of(ItemChangeDto.builder().itemId(1L).changes(disable).build(),
+                ItemChangeDto.builder().itemId(2L).changes(disable).build());
+        List<ItemChangeDto> duplicate = List.of(ItemChangeDto.builder().itemId(1L).changes(disable).build(),
+                ItemChangeDto.builder().itemId(1L).changes(disable).build());
+        when(itemRepository.findOwnedIds(any(), eq(1L)))
+                .thenReturn(List.of(1L));
+
+        assertThrows(NotFoundException.class, () -> itemService.updateItems(1L, foreign));
+        assertThrows(ValidationException.class, () -> itemService.updateItems(1L, duplicate));
+        verify(itemRepository, never()).updateChanges(anyCollection(), any(), any(), any());
+    }
+
     @Test
     void updateItemNoAccessTest() {
         user = User.builder()
@@ -298,20 +500,13 @@ class ItemServiceTest {
                 .user(user.getId())
                 .item(item.getId())
                 .build();
-        Booking booking = Booking.builder()
-                .id(1L)
-                .booker(user)
-                .start(LocalDateTime.now().minusHours(2))
-                .end(LocalDateTime.now())
-                .item(item)
-                .status(BookingStatus.APPROVED)
-                .build();
         when(userRepository.findById(anyLong()))
                 .thenReturn(Optional.empty());
-        when(bookingRepository.findAllByBooker(any(), any(Sort.class)))
-                .thenReturn(List.of(booking));
-        when(itemRepository.findById(anyLong()))
-                .thenReturn(Optional.of(item));
+        when(bookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(anyLong(), anyLong(),
+                eq(BookingStatus.APPROVED), any()))
+                .thenReturn(true);
+        when(itemRepository.getReferenceById(anyLong()))
+                .thenReturn(item);
         when(commentRepository.save(CommentMapper.toComment(comment)))
                 .thenReturn(CommentMapper.toComment(comment));
 
@@ -347,27 +542,40 @@ class ItemServiceTest {
         comment.setUser(user);
         comment.setAuthorName(user.getName());
         comment.setItem(item);
-        Booking booking = Booking.builder()
-                .id(1L)
-                .booker(user)
-                .start(LocalDateTime.now().minusHours(2))
-                .end(LocalDateTime.now())
-                .item(item)
-                .status(BookingStatus.APPROVED)
-                .build();
-
         when(userRepository.findById(anyLong()))
                 .thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByBooker(any(), any(Sort.class)))
-                .thenReturn(List.of(booking));
-        when(itemRepository.findById(anyLong()))
-                .thenReturn(Optional.of(item));
+        when(bookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(anyLong(), anyLong(),
+                eq(BookingStatus.APPROVED), any()))
+                .thenReturn(true);
+        when(itemRepository.getReferenceById(anyLong()))
+                .thenReturn(item);
         when(commentRepository.save(comment))
                 .thenReturn(comment);
 
         assertEquals(CommentMapper.toCommentDto(comment), itemService.createComment(commentDto, item.getId(), commentDto.getUser()));
     }
 
+    @Test
+    void createCommentWithoutPastBookingTest() {
+        user = User.builder()
+                .id(1L)
+                .name("username")
+                .email("asd@mail.ru")
+                .build();
+        CommentDto commentDto = CommentDto.builder()
+                .text("good")
+                .build();
+        when(userRepository.findById(anyLong()))
+                .thenReturn(Optional.of(user));
+        when(bookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(anyLong(), anyLong(),
+                eq(BookingStatus.APPROVED), any()))
+                .thenReturn(false);
+
+        assertThrows(ValidationException.class, () -> itemService.createComment(commentDto, 1L, user.getId()));
+        verify(itemRepository, never()).getReferenceById(anyLong());
+        verify(commentRepository, never()).save(any());
+    }
+
     @Test
     void getItemTest() {
         item = Item.builder()
@@ -383,6 +591,7 @@ class ItemServiceTest {
                 .build();
         ItemExtendedDto tempItem = ItemMapper.toItemDto(item);
         tempItem.setComments(new ArrayList<>());
+        tempItem.setCommentsCount(0L);
         when(itemRepository.findById(anyLong()))
                 .thenReturn(Optional.of(item));
 
@@ -420,4 +629,53 @@ class ItemServiceTest {
 
         assertEquals(ItemMapper.toItemDto(expected), itemService.saveItem(user.getId(), itemDto));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getItemAvailabilityTest() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1).withHour(0).withMinute(0).withSecond(0).withNano(0);
+        when(itemRepository.existsById(anyLong()))
+                .thenReturn(true);
+        when(availabilityCache.getBusyIntervals(anyLong()))
+                .thenReturn(List.of(new ItemAvailabilityCache.BusyInterval(from.plusHours(2).plusMinutes(30),
+                        from.plusHours(4))));
+
+        ItemAvailabilityDto actual = itemService.getItemAvailability(1L, from, from.plusHours(6),
+                AvailabilityGranularity.HOUR);
+        BitSet busy = BitSet.valueOf(Base64.getDecoder().decode(actual.getBusy()));
+
+        assertEquals(6, actual.getSlots());
+        assertEquals(BitSet.valueOf(new long[]{0b1100}), busy);
+    }
+
+    @Test
+    void getItemAvailabilityWrongRangeTest() {
+        LocalDateTime from = LocalDateTime.now();
+
+        assertThrows(ValidationException.class,
+                () -> itemService.getItemAvailability(1L, from, from.minusHours(1), AvailabilityGranularity.HOUR));
+    }
+
+    @Test
+    void getItemAvailabilityTooManySlotsTest() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusHours((1L << 32) + 1);
+
+        ValidationException e = assertThrows(ValidationException.class,
+                () -> itemService.getItemAvailability(1L, from, to, AvailabilityGranularity.HOUR));
+        assertEquals("Availability can not exceed 2000 slots.", e.getMessage());
+        verify(itemRepository, never()).existsById(anyLong());
+    }
+
+    private ItemSearchHit hit(Long id, Float rank) {
+        ItemSearchHit hit = mock(ItemSearchHit.class);
+        lenient().when(hit.getId()).thenReturn(id);
+        lenient().when(hit.getRank()).thenReturn(rank);
+        return hit;
+    }
+
+    private ItemServiceImpl newItemService(ItemSearchMode searchMode) {
+        return new ItemServiceImpl(itemRepository, userRepository, commentRepository, bookingRepository,
+                requestRepository, availabilityCache, bookingSummaryService, itemViewCache, searchCache, searchIndex,
+                searchMode, 10);
+    }
+}
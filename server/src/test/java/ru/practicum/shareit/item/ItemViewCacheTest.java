@@ -0,0 +1,85 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemExtendedDto;
+import ru.practicum.shareit.item.service.ItemViewCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+class ItemViewCacheTest {
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ItemViewCache cache = new ItemViewCache(meterRegistry, 100);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void burstOfMissesLoadsOnceTest() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<ItemViewCache.ItemView>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return cache.get(1L, this::slowLoad);
+                }));
+            }
+            start.countDown();
+            for (Future<ItemViewCache.ItemView> result : results) {
+                assertEquals(1L, result.get(5, TimeUnit.SECONDS).getItem().getId());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(7.0, meterRegistry.get("cache.gets").tag("cache", "item.view").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "item.view").tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    @Test
+    void evictReloadsAndCopiesAreIndependentTest() {
+        ItemExtendedDto first = cache.get(1L, this::load).toDto();
+        first.getComments().add(null);
+        ItemExtendedDto second = cache.get(1L, this::load).toDto();
+
+        cache.evict(1L);
+        cache.get(1L, this::load);
+
+        assertNotSame(first, second);
+        assertEquals(0, second.getComments().size());
+        assertEquals(2, loads.get());
+    }
+
+    private ItemViewCache.ItemView slowLoad(Long itemId) {
+        try {
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return load(itemId);
+    }
+
+    private ItemViewCache.ItemView load(Long itemId) {
+        loads.incrementAndGet();
+        return new ItemViewCache.ItemView(1L, ItemExtendedDto.builder()
+                .id(itemId)
+                .name("item")
+                .comments(new ArrayList<>())
+                .commentsCount(0L)
+                .build());
+    }
+}